@@ -0,0 +1,530 @@
+package io.github.linktosriram.kext4j.bytes;
+
+import io.github.linktosriram.kext4j.sequence.Sequence;
+import io.github.linktosriram.kext4j.sequence.SequenceUtils;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static io.github.linktosriram.kext4j.range.RangeUtils.coerceAtLeast;
+import static java.lang.Character.MAX_RADIX;
+import static java.lang.Character.MIN_RADIX;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Byte oriented counterparts of the {@code StringUtils} functions, operating directly on ASCII or UTF-8 encoded bytes.
+ * <p>
+ * Functions accepting a {@link ByteBuffer} look at the bytes between its position and limit and never modify the buffer. Indices are absolute,
+ * i.e. the same ones accepted by {@link ByteBuffer#get(int)}, and split results are zero-copy slices of the original buffer, so only the fields
+ * passed to {@link #toString(ByteBuffer, Charset)} are ever decoded.
+ * <p>
+ * Searching for ASCII bytes is safe on UTF-8 input since every byte of a multi-byte UTF-8 sequence has its high bit set.
+ */
+public final class ByteTextUtils {
+
+    @Contract(value = " -> fail", pure = true)
+    private ByteTextUtils() {
+        throw new AssertionError();
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull byte[] array, final byte b) {
+        return indexOf(ByteBuffer.wrap(array), b);
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull byte[] array, final byte b,
+                                                                        final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        return indexOf(ByteBuffer.wrap(array), b, startIndex);
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull ByteBuffer buffer, final byte b) {
+        return indexOf(buffer, b, buffer.position());
+    }
+
+    // Returns the index of the first occurrence of the specified byte, starting from the specified startIndex.
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull ByteBuffer buffer, final byte b,
+                                                                        final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        final int limit = buffer.limit();
+        if (buffer.hasArray()) {
+            final byte[] array = buffer.array();
+            final int offset = buffer.arrayOffset();
+            for (int i = Math.max(startIndex, buffer.position()); i < limit; i++) {
+                if (array[offset + i] == b) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = Math.max(startIndex, buffer.position()); i < limit; i++) {
+                if (buffer.get(i) == b) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull byte[] array, final @NotNull byte[] bytes) {
+        return indexOf(ByteBuffer.wrap(array), bytes);
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull ByteBuffer buffer, final @NotNull byte[] bytes) {
+        return indexOf(buffer, bytes, buffer.position());
+    }
+
+    // Returns the index of the first occurrence of the specified byte sequence, starting from the specified startIndex.
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull ByteBuffer buffer, final @NotNull byte[] bytes,
+                                                                        final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        final int start = Math.max(startIndex, buffer.position());
+        if (bytes.length == 0) {
+            return start <= buffer.limit() ? start : -1;
+        }
+        final byte first = bytes[0];
+        final int last = buffer.limit() - bytes.length;
+        int i = start;
+        while (i <= last) {
+            i = indexOf(buffer, first, i);
+            if (i < 0 || i > last) {
+                return -1;
+            }
+            if (regionMatches(buffer, i, bytes)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull byte[] array, final @NotNull byte[] bytes) {
+        return indexOfAny(ByteBuffer.wrap(array), bytes);
+    }
+
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull ByteBuffer buffer, final @NotNull byte[] bytes) {
+        return indexOfAny(buffer, bytes, buffer.position());
+    }
+
+    // Returns the index of the first occurrence of any of the specified bytes, starting from the specified startIndex.
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull ByteBuffer buffer, final @NotNull byte[] bytes,
+                                                                           final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        if (bytes.length == 1) {
+            return indexOf(buffer, bytes[0], startIndex);
+        }
+        final boolean[] table = new boolean[256];
+        for (final byte b : bytes) {
+            table[b & 0xFF] = true;
+        }
+        final int limit = buffer.limit();
+        for (int i = Math.max(startIndex, buffer.position()); i < limit; i++) {
+            if (table[buffer.get(i) & 0xFF]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static boolean startsWith(final @NotNull byte[] array, final @NotNull byte[] prefix) {
+        return startsWith(ByteBuffer.wrap(array), prefix);
+    }
+
+    // Returns true if the remaining bytes of the buffer start with the specified prefix.
+    public static boolean startsWith(final @NotNull ByteBuffer buffer, final @NotNull byte[] prefix) {
+        return regionMatches(buffer, buffer.position(), prefix);
+    }
+
+    public static boolean endsWith(final @NotNull byte[] array, final @NotNull byte[] suffix) {
+        return endsWith(ByteBuffer.wrap(array), suffix);
+    }
+
+    // Returns true if the remaining bytes of the buffer end with the specified suffix.
+    public static boolean endsWith(final @NotNull ByteBuffer buffer, final @NotNull byte[] suffix) {
+        final int start = buffer.limit() - suffix.length;
+        return start >= buffer.position() && regionMatches(buffer, start, suffix);
+    }
+
+    public static @NotNull List<ByteBuffer> split(final @NotNull byte[] array, final byte delimiter) {
+        return split(ByteBuffer.wrap(array), delimiter, 0);
+    }
+
+    public static @NotNull List<ByteBuffer> split(final @NotNull ByteBuffer buffer, final byte delimiter) {
+        return split(buffer, delimiter, 0);
+    }
+
+    // Splits the remaining bytes of the buffer around occurrences of the specified delimiter. The result contains at most limit slices when limit is
+    // positive, the last one holding the rest of the buffer.
+    public static @NotNull List<ByteBuffer> split(final @NotNull ByteBuffer buffer, final byte delimiter,
+                                                  final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        return SequenceUtils.toList(splitToSequence(buffer, delimiter, limit));
+    }
+
+    public static @NotNull List<ByteBuffer> split(final @NotNull byte[] array, final @NotNull byte[] delimiter) {
+        return split(ByteBuffer.wrap(array), delimiter, 0);
+    }
+
+    public static @NotNull List<ByteBuffer> split(final @NotNull ByteBuffer buffer, final @NotNull byte[] delimiter) {
+        return split(buffer, delimiter, 0);
+    }
+
+    // Splits the remaining bytes of the buffer around occurrences of the specified delimiter sequence.
+    public static @NotNull List<ByteBuffer> split(final @NotNull ByteBuffer buffer, final @NotNull byte[] delimiter,
+                                                  final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        return SequenceUtils.toList(splitToSequence(buffer, delimiter, limit));
+    }
+
+    public static @NotNull Sequence<ByteBuffer> splitToSequence(final @NotNull ByteBuffer buffer, final byte delimiter) {
+        return splitToSequence(buffer, delimiter, 0);
+    }
+
+    public static @NotNull Sequence<ByteBuffer> splitToSequence(final @NotNull ByteBuffer buffer, final byte delimiter,
+                                                                final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        requireNonNegativeLimit(limit);
+        return () -> new DelimitedSlicesIterator(buffer, limit) {
+            @Override
+            int nextDelimiter(final int from) {
+                return indexOf(buffer, delimiter, from);
+            }
+
+            @Override
+            int delimiterLength(final int index) {
+                return 1;
+            }
+        };
+    }
+
+    public static @NotNull Sequence<ByteBuffer> splitToSequence(final @NotNull ByteBuffer buffer, final @NotNull byte[] delimiter) {
+        return splitToSequence(buffer, delimiter, 0);
+    }
+
+    public static @NotNull Sequence<ByteBuffer> splitToSequence(final @NotNull ByteBuffer buffer, final @NotNull byte[] delimiter,
+                                                                final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        if (delimiter.length == 0) {
+            throw new IllegalArgumentException("Delimiter must not be empty.");
+        }
+        requireNonNegativeLimit(limit);
+        return () -> new DelimitedSlicesIterator(buffer, limit) {
+            @Override
+            int nextDelimiter(final int from) {
+                return indexOf(buffer, delimiter, from);
+            }
+
+            @Override
+            int delimiterLength(final int index) {
+                return delimiter.length;
+            }
+        };
+    }
+
+    // Splits the remaining bytes of the buffer to a list of lines delimited by any of the following sequences: CRLF, LF or CR.
+    // The lines returned do not include terminating line separators.
+    public static @NotNull List<ByteBuffer> lines(final @NotNull ByteBuffer buffer) {
+        return SequenceUtils.toList(lineSequence(buffer));
+    }
+
+    public static @NotNull List<ByteBuffer> lines(final @NotNull byte[] array) {
+        return lines(ByteBuffer.wrap(array));
+    }
+
+    // Splits the remaining bytes of the buffer to a sequence of lines delimited by any of the following sequences: CRLF, LF or CR.
+    // The lines returned do not include terminating line separators.
+    public static @NotNull Sequence<ByteBuffer> lineSequence(final @NotNull ByteBuffer buffer) {
+        return () -> new DelimitedSlicesIterator(buffer, 0) {
+            @Override
+            int nextDelimiter(final int from) {
+                final int limit = buffer.limit();
+                for (int i = from; i < limit; i++) {
+                    final byte b = buffer.get(i);
+                    if (b == '\n' || b == '\r') {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            int delimiterLength(final int index) {
+                return buffer.get(index) == '\r' && index + 1 < buffer.limit() && buffer.get(index + 1) == '\n' ? 2 : 1;
+            }
+        };
+    }
+
+    // Returns a slice of the buffer with leading and trailing ASCII whitespace removed.
+    public static @NotNull ByteBuffer trim(final @NotNull ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        return slice(buffer, start, end);
+    }
+
+    // Returns a slice of the buffer with leading ASCII whitespace removed.
+    public static @NotNull ByteBuffer trimStart(final @NotNull ByteBuffer buffer) {
+        int start = buffer.position();
+        final int end = buffer.limit();
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        return slice(buffer, start, end);
+    }
+
+    // Returns a slice of the buffer with trailing ASCII whitespace removed.
+    public static @NotNull ByteBuffer trimEnd(final @NotNull ByteBuffer buffer) {
+        final int start = buffer.position();
+        int end = buffer.limit();
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        return slice(buffer, start, end);
+    }
+
+    // Returns a zero-copy slice holding the bytes between the absolute indices startIndex (inclusive) and endIndex (exclusive).
+    public static @NotNull ByteBuffer slice(final @NotNull ByteBuffer buffer, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                            final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.limit(endIndex);
+        duplicate.position(startIndex);
+        return duplicate.slice();
+    }
+
+    // Decodes the remaining bytes of the buffer as UTF-8.
+    public static @NotNull String toString(final @NotNull ByteBuffer buffer) {
+        return toString(buffer, UTF_8);
+    }
+
+    // Decodes the remaining bytes of the buffer using the specified charset.
+    public static @NotNull String toString(final @NotNull ByteBuffer buffer, final @NotNull Charset charset) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), charset);
+        }
+        return charset.decode(buffer.duplicate()).toString();
+    }
+
+    // Parses the remaining bytes as a decimal int number.
+    public static int toInt(final @NotNull ByteBuffer buffer) {
+        return toInt(buffer, 10);
+    }
+
+    // Parses the remaining bytes as an int number in the specified radix.
+    public static int toInt(final @NotNull ByteBuffer buffer, final @Range(from = MIN_RADIX, to = MAX_RADIX) int radix) {
+        final Integer result = toIntOrNull(buffer, radix);
+        if (result == null) {
+            throw numberFormatException(buffer);
+        }
+        return result;
+    }
+
+    public static @Nullable Integer toIntOrNull(final @NotNull ByteBuffer buffer) {
+        return toIntOrNull(buffer, 10);
+    }
+
+    // Parses the remaining bytes as an int number and returns the result or null if they are not a valid representation of a number.
+    public static @Nullable Integer toIntOrNull(final @NotNull ByteBuffer buffer, final @Range(from = MIN_RADIX, to = MAX_RADIX) int radix) {
+        checkRadix(radix);
+        final int position = buffer.position();
+        final int length = buffer.limit() - position;
+        if (length == 0) {
+            return null;
+        }
+        final int start;
+        final boolean isNegative;
+        final int limit;
+        final byte firstByte = buffer.get(position);
+        if (firstByte < '0') {  // Possible leading sign
+            if (length == 1) {
+                return null;    // non-digit (possible sign) only, no digits after
+            }
+            start = 1;
+            if (firstByte == '-') {
+                isNegative = true;
+                limit = Integer.MIN_VALUE;
+            } else if (firstByte == '+') {
+                isNegative = false;
+                limit = -Integer.MAX_VALUE;
+            } else {
+                return null;
+            }
+        } else {
+            start = 0;
+            isNegative = false;
+            limit = -Integer.MAX_VALUE;
+        }
+        final int limitBeforeMul = limit / radix;
+        int result = 0;
+        for (int i = start; i < length; i++) {
+            final int digit = digitOf(buffer.get(position + i), radix);
+            if (digit < 0) {
+                return null;
+            }
+            if (result < limitBeforeMul) {
+                return null;
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return isNegative ? result : -result;
+    }
+
+    // Parses the remaining bytes as a decimal long number.
+    public static long toLong(final @NotNull ByteBuffer buffer) {
+        return toLong(buffer, 10);
+    }
+
+    // Parses the remaining bytes as a long number in the specified radix.
+    public static long toLong(final @NotNull ByteBuffer buffer, final @Range(from = MIN_RADIX, to = MAX_RADIX) int radix) {
+        final Long result = toLongOrNull(buffer, radix);
+        if (result == null) {
+            throw numberFormatException(buffer);
+        }
+        return result;
+    }
+
+    public static @Nullable Long toLongOrNull(final @NotNull ByteBuffer buffer) {
+        return toLongOrNull(buffer, 10);
+    }
+
+    // Parses the remaining bytes as a long number and returns the result or null if they are not a valid representation of a number.
+    public static @Nullable Long toLongOrNull(final @NotNull ByteBuffer buffer, final @Range(from = MIN_RADIX, to = MAX_RADIX) int radix) {
+        checkRadix(radix);
+        final int position = buffer.position();
+        final int length = buffer.limit() - position;
+        if (length == 0) {
+            return null;
+        }
+        final int start;
+        final boolean isNegative;
+        final long limit;
+        final byte firstByte = buffer.get(position);
+        if (firstByte < '0') {  // Possible leading sign
+            if (length == 1) {
+                return null;    // non-digit (possible sign) only, no digits after
+            }
+            start = 1;
+            if (firstByte == '-') {
+                isNegative = true;
+                limit = Long.MIN_VALUE;
+            } else if (firstByte == '+') {
+                isNegative = false;
+                limit = -Long.MAX_VALUE;
+            } else {
+                return null;
+            }
+        } else {
+            start = 0;
+            isNegative = false;
+            limit = -Long.MAX_VALUE;
+        }
+        final long limitBeforeMul = limit / radix;
+        long result = 0;
+        for (int i = start; i < length; i++) {
+            final int digit = digitOf(buffer.get(position + i), radix);
+            if (digit < 0) {
+                return null;
+            }
+            if (result < limitBeforeMul) {
+                return null;
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                return null;
+            }
+            result -= digit;
+        }
+        return isNegative ? result : -result;
+    }
+
+    // Private Stuff
+
+    private static boolean regionMatches(final @NotNull ByteBuffer buffer, final int index, final @NotNull byte[] bytes) {
+        if (index < buffer.position() || index > buffer.limit() - bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(index + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same set of characters as Character.isWhitespace for the ASCII range.
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b >= 0x09 && b <= 0x0D || b >= 0x1C && b <= 0x1F;
+    }
+
+    private static int digitOf(final byte b, final @Range(from = MIN_RADIX, to = MAX_RADIX) int radix) {
+        return b < 0 ? -1 : Character.digit(b, radix);
+    }
+
+    @Contract(value = "_ -> param1", pure = true)
+    private static int checkRadix(@NonNls final int radix) {
+        if (radix >= MIN_RADIX && radix <= MAX_RADIX) {
+            return radix;
+        } else {
+            throw new IllegalArgumentException("radix " + radix + " was not in valid range " + MIN_RADIX + ".." + MAX_RADIX);
+        }
+    }
+
+    private static void requireNonNegativeLimit(@NonNls final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative, but was " + limit + ".");
+        }
+    }
+
+    @Contract("_ -> new")
+    private static @NotNull NumberFormatException numberFormatException(final @NotNull ByteBuffer buffer) {
+        return new NumberFormatException("For input string: \"" + toString(buffer, UTF_8) + "\"");
+    }
+
+    // Iterates the slices between delimiters, reporting the trailing slice after the last delimiter as well.
+    private abstract static class DelimitedSlicesIterator implements Iterator<ByteBuffer> {
+
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int currentStart;
+        private int counter;
+        private boolean done;
+
+        DelimitedSlicesIterator(final ByteBuffer buffer, final int limit) {
+            this.buffer = buffer;
+            this.limit = limit;
+            currentStart = buffer.position();
+        }
+
+        abstract int nextDelimiter(int from);
+
+        abstract int delimiterLength(int index);
+
+        @Override
+        public boolean hasNext() {
+            return !done;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+            final int index = limit > 0 && ++counter >= limit ? -1 : nextDelimiter(currentStart);
+            final ByteBuffer result;
+            if (index < 0) {
+                result = slice(buffer, currentStart, buffer.limit());
+                done = true;
+            } else {
+                result = slice(buffer, currentStart, index);
+                currentStart = coerceAtLeast(index + delimiterLength(index), currentStart);
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.linktosriram.kext4j.collection;
 
+import io.github.linktosriram.kext4j.text.DecimalDigits;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Range;
@@ -51,4 +52,107 @@ public final class ArrayUtils {
         }
         return -1;
     }
+
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull int[] array, final @NotNull CharSequence separator) {
+        return joinToString(array, separator, "", "", -1, "...");
+    }
+
+    // Joins the elements as CollectionUtils.joinTo would join them boxed, writing their digits straight into a builder of the exact size.
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull int[] array, final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                               final @NotNull CharSequence postfix, final int limit, final @NotNull CharSequence truncated) {
+        final int count = joinedCount(array.length, limit);
+        long digits = 0;
+        for (int i = 0; i < count; i++) {
+            digits += DecimalDigits.stringSize(array[i]);
+        }
+        final StringBuilder builder = new StringBuilder(joinedCapacity(digits, array.length, limit, separator, prefix, postfix, truncated));
+        builder.append(prefix);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(array[i]);
+        }
+        return appendTruncated(builder, array.length, count, separator, postfix, truncated);
+    }
+
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull long[] array, final @NotNull CharSequence separator) {
+        return joinToString(array, separator, "", "", -1, "...");
+    }
+
+    // Joins the elements as CollectionUtils.joinTo would join them boxed, writing their digits straight into a builder of the exact size.
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull long[] array, final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                               final @NotNull CharSequence postfix, final int limit, final @NotNull CharSequence truncated) {
+        final int count = joinedCount(array.length, limit);
+        long digits = 0;
+        for (int i = 0; i < count; i++) {
+            digits += DecimalDigits.stringSize(array[i]);
+        }
+        final StringBuilder builder = new StringBuilder(joinedCapacity(digits, array.length, limit, separator, prefix, postfix, truncated));
+        builder.append(prefix);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(array[i]);
+        }
+        return appendTruncated(builder, array.length, count, separator, postfix, truncated);
+    }
+
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull double[] array, final @NotNull CharSequence separator) {
+        return joinToString(array, separator, "", "", -1, "...");
+    }
+
+    // Joins the elements as CollectionUtils.joinTo would join them boxed, formatted by StringBuilder.append(double), which gives the chars
+    // of Double.toString(double) without creating the String.
+    @Contract(pure = true)
+    public static @NotNull String joinToString(final @NotNull double[] array, final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                               final @NotNull CharSequence postfix, final int limit, final @NotNull CharSequence truncated) {
+        final int count = joinedCount(array.length, limit);
+        // Most doubles take between 3 and 24 chars, an estimate is good enough
+        final long digits = 12L * count;
+        final StringBuilder builder = new StringBuilder(joinedCapacity(digits, array.length, limit, separator, prefix, postfix, truncated));
+        builder.append(prefix);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(array[i]);
+        }
+        return appendTruncated(builder, array.length, count, separator, postfix, truncated);
+    }
+
+    // Returns the number of elements joined, at most limit unless it is negative.
+    private static int joinedCount(final int length, final int limit) {
+        return limit < 0 ? length : Math.min(length, limit);
+    }
+
+    // Returns the length of a join whose elements take the given number of chars. A truncated join has a separator before the truncated
+    // text, unless no element was joined.
+    private static int joinedCapacity(final long elementChars, final int length, final int limit, final @NotNull CharSequence separator,
+                                      final @NotNull CharSequence prefix, final @NotNull CharSequence postfix,
+                                      final @NotNull CharSequence truncated) {
+        final int separators = Math.max(0, (limit < 0 ? length : Math.min(length, limit + 1)) - 1);
+        final boolean isTruncated = limit >= 0 && length > limit;
+        final long capacity = elementChars + (long) separators * separator.length() + prefix.length() + postfix.length()
+            + (isTruncated ? truncated.length() : 0);
+        return (int) Math.min(capacity, Integer.MAX_VALUE - 8);
+    }
+
+    private static @NotNull String appendTruncated(final @NotNull StringBuilder builder, final int length, final int count,
+                                                   final @NotNull CharSequence separator, final @NotNull CharSequence postfix,
+                                                   final @NotNull CharSequence truncated) {
+        if (count < length) {
+            if (count > 0) {
+                builder.append(separator);
+            }
+            builder.append(truncated);
+        }
+        return builder.append(postfix).toString();
+    }
 }
@@ -0,0 +1,27 @@
+package io.github.linktosriram.kext4j.collection;
+
+import io.github.linktosriram.kext4j.text.CharSequenceEquivalence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.Map;
+
+/**
+ * A {@link CharSequenceMap} comparing keys ignoring the case, for header-like keys which would otherwise be lower-cased just to be used as
+ * {@link java.util.HashMap} keys. Neither puts nor lookups allocate a case-folded copy of the key: the original spelling of the first put is
+ * the one kept as key.
+ */
+public final class CaseInsensitiveMap<V> extends CharSequenceMap<V> {
+
+    public CaseInsensitiveMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public CaseInsensitiveMap(final @Range(from = 0, to = Integer.MAX_VALUE) int expectedSize) {
+        super(expectedSize, CharSequenceEquivalence.IGNORE_CASE);
+    }
+
+    public CaseInsensitiveMap(final @NotNull Map<? extends CharSequence, ? extends V> map) {
+        super(map, CharSequenceEquivalence.IGNORE_CASE);
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.linktosriram.kext4j.collection;
+
+import io.github.linktosriram.kext4j.text.CharSequenceEquivalence;
+import io.github.linktosriram.kext4j.text.CharUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static io.github.linktosriram.kext4j.collection.MapUtils.mapCapacity;
+
+/**
+ * A hash map with {@link String} keys which can be looked up by the content of any {@link CharSequence}, or of a region of one, without
+ * creating a {@link String} first. This removes the substring-then-hash round trip when the result of a split is only used as a lookup key.
+ * <p>
+ * Keys are hashed and compared by content through a {@link CharSequenceEquivalence}, exactly by default, or ignoring the case with the same
+ * semantics as {@link CharUtils#equals(char, char, boolean)} (see {@link CaseInsensitiveMap}). The table uses open addressing with linear
+ * probing and backward-shift deletion, so it has no per-entry node objects. Null keys are not supported, null values are. Iterators of the
+ * views do not support removal: use {@link #remove(Object)} instead.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CharSequenceMap<V> extends AbstractMap<String, V> {
+
+    static final int DEFAULT_EXPECTED_SIZE = 12;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final CharSequenceEquivalence equivalence;
+
+    // Parallel arrays indexed by slot, a null key marks a free slot
+    private String[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int mask;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    private Set<Entry<String, V>> entrySet;
+
+    public CharSequenceMap() {
+        this(DEFAULT_EXPECTED_SIZE, CharSequenceEquivalence.EXACT);
+    }
+
+    public CharSequenceMap(final boolean ignoreCase) {
+        this(DEFAULT_EXPECTED_SIZE, ignoreCase);
+    }
+
+    public CharSequenceMap(final @Range(from = 0, to = Integer.MAX_VALUE) int expectedSize) {
+        this(expectedSize, CharSequenceEquivalence.EXACT);
+    }
+
+    // Creates a map able to hold expectedSize entries without resizing, comparing keys optionally ignoring the case.
+    public CharSequenceMap(final @Range(from = 0, to = Integer.MAX_VALUE) int expectedSize, final boolean ignoreCase) {
+        this(expectedSize, ignoreCase ? CharSequenceEquivalence.IGNORE_CASE : CharSequenceEquivalence.EXACT);
+    }
+
+    // Creates a map able to hold expectedSize entries without resizing, hashing and comparing keys with the given equivalence.
+    public CharSequenceMap(final @Range(from = 0, to = Integer.MAX_VALUE) int expectedSize, final @NotNull CharSequenceEquivalence equivalence) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must be non-negative, but was " + expectedSize);
+        }
+        this.equivalence = equivalence;
+        allocate(tableSizeFor(mapCapacity(expectedSize)));
+    }
+
+    public CharSequenceMap(final @NotNull Map<? extends CharSequence, ? extends V> map) {
+        this(map, CharSequenceEquivalence.EXACT);
+    }
+
+    public CharSequenceMap(final @NotNull Map<? extends CharSequence, ? extends V> map, final boolean ignoreCase) {
+        this(map, ignoreCase ? CharSequenceEquivalence.IGNORE_CASE : CharSequenceEquivalence.EXACT);
+    }
+
+    public CharSequenceMap(final @NotNull Map<? extends CharSequence, ? extends V> map, final @NotNull CharSequenceEquivalence equivalence) {
+        this(map.size(), equivalence);
+        for (final Entry<? extends CharSequence, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    // Returns the equivalence used to hash and compare keys.
+    public final @NotNull CharSequenceEquivalence equivalence() {
+        return equivalence;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final @Nullable Object key) {
+        return key instanceof CharSequence && containsKey((CharSequence) key, 0, ((CharSequence) key).length());
+    }
+
+    // Returns true if this map contains a key with the same content as the region [startIndex, endIndex) of the given char sequence.
+    public boolean containsKey(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                               final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        return find(seq, startIndex, endIndex) >= 0;
+    }
+
+    @Override
+    public @Nullable V get(final @Nullable Object key) {
+        return key instanceof CharSequence ? get((CharSequence) key, 0, ((CharSequence) key).length()) : null;
+    }
+
+    // Returns the value of the key with the same content as the region [startIndex, endIndex) of the given char sequence, or null.
+    public @Nullable V get(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                           final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        final int slot = find(seq, startIndex, endIndex);
+        return slot < 0 ? null : value(slot);
+    }
+
+    // Returns the value of the key with the same content as the region [startIndex, endIndex) of the given char sequence, or defaultValue.
+    public @Nullable V getOrDefault(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                    final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex, final @Nullable V defaultValue) {
+        final int slot = find(seq, startIndex, endIndex);
+        return slot < 0 ? defaultValue : value(slot);
+    }
+
+    @Override
+    public @Nullable V put(final @NotNull String key, final @Nullable V value) {
+        return put((CharSequence) key, value);
+    }
+
+    // Associates the value with the content of the given char sequence, which is copied to a String only if the key is not present yet.
+    public @Nullable V put(final @NotNull CharSequence key, final @Nullable V value) {
+        final int length = key.length();
+        final int hash = hash(key, 0, length);
+        int slot = hash & mask;
+        String existing;
+        while ((existing = keys[slot]) != null) {
+            if (hashes[slot] == hash && regionEquals(existing, key, 0, length)) {
+                final V previous = value(slot);
+                values[slot] = value;
+                return previous;
+            }
+            slot = slot + 1 & mask;
+        }
+        keys[slot] = key.toString();
+        values[slot] = value;
+        hashes[slot] = hash;
+        modCount++;
+        if (++size > threshold) {
+            resize();
+        }
+        return null;
+    }
+
+    @Override
+    public @Nullable V remove(final @Nullable Object key) {
+        return key instanceof CharSequence ? remove((CharSequence) key, 0, ((CharSequence) key).length()) : null;
+    }
+
+    // Removes the key with the same content as the region [startIndex, endIndex) of the given char sequence and returns its value, or null.
+    public @Nullable V remove(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                              final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        final int slot = find(seq, startIndex, endIndex);
+        if (slot < 0) {
+            return null;
+        }
+        final V previous = value(slot);
+        removeAt(slot);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, V>> entrySet() {
+        final Set<Entry<String, V>> result = entrySet;
+        return result != null ? result : (entrySet = new EntrySet());
+    }
+
+    private int find(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + seq.length());
+        }
+        final int hash = hash(seq, startIndex, endIndex);
+        int slot = hash & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (hashes[slot] == hash && regionEquals(key, seq, startIndex, endIndex)) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+        }
+        return -1;
+    }
+
+    // Empties the slot and moves back the following entries of the cluster whose probe sequence goes through it, so lookups never need
+    // tombstones.
+    private void removeAt(int slot) {
+        modCount++;
+        size--;
+        int next = slot;
+        while (true) {
+            next = next + 1 & mask;
+            final String key = keys[next];
+            if (key == null) {
+                break;
+            }
+            final int home = hashes[next] & mask;
+            // Move the entry if its home slot is not in the cyclic range (slot, next]
+            if (slot <= next ? slot >= home || home > next : slot >= home && home > next) {
+                keys[slot] = key;
+                values[slot] = values[next];
+                hashes[slot] = hashes[next];
+                slot = next;
+            }
+        }
+        keys[slot] = null;
+        values[slot] = null;
+    }
+
+    private void resize() {
+        if (keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("CharSequenceMap cannot hold more than " + threshold + " entries");
+        }
+        final String[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int[] oldHashes = hashes;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = slot + 1 & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        // Same 0.75 load factor as the capacity computed by mapCapacity
+        threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : capacity - (capacity >>> 2);
+    }
+
+    private static int tableSizeFor(final int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(final int slot) {
+        return (V) values[slot];
+    }
+
+    // Hash of the region according to the equivalence, spread so that linear probing sees the high bits too.
+    private int hash(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final int h = equivalence.hash(seq, startIndex, endIndex);
+        return h ^ h >>> 16;
+    }
+
+    private boolean regionEquals(final @NotNull String key, final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final int length = endIndex - startIndex;
+        return key.length() == length && equivalence.regionEquals(key, 0, seq, startIndex, length);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, V>> {
+
+        @Override
+        public @NotNull Iterator<Entry<String, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(final @Nullable Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Object key = ((Entry<?, ?>) obj).getKey();
+            if (!(key instanceof CharSequence)) {
+                return false;
+            }
+            final int slot = find((CharSequence) key, 0, ((CharSequence) key).length());
+            if (slot < 0) {
+                return false;
+            }
+            final Object value = ((Entry<?, ?>) obj).getValue();
+            return value == null ? values[slot] == null : value.equals(values[slot]);
+        }
+
+        @Override
+        public void clear() {
+            CharSequenceMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, V>> {
+
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int slot) {
+            while (slot < keys.length && keys[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public @NotNull Entry<String, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= keys.length) {
+                throw new NoSuchElementException();
+            }
+            final int slot = next;
+            next = advance(slot + 1);
+            return new SlotEntry(slot);
+        }
+    }
+
+    private final class SlotEntry extends SimpleEntry<String, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int slot;
+        private final int expectedModCount = modCount;
+
+        SlotEntry(final int slot) {
+            super(keys[slot], value(slot));
+            this.slot = slot;
+        }
+
+        // Writes through to the map as long as it was not structurally modified since this entry was returned.
+        @Override
+        public V setValue(final V value) {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            values[slot] = value;
+            return super.setValue(value);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.linktosriram.kext4j.collection;
 
+import io.github.linktosriram.kext4j.text.ScratchBuilders;
 import io.github.linktosriram.kext4j.text.StringUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -9,6 +10,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -174,6 +176,7 @@ public final class CollectionUtils {
         return of(min);
     }
 
+    // The result size estimate is kept for compatibility only, as the lines are joined into an array of their exact total length.
     public static @NotNull String reindent(final @NotNull List<String> list, final int resultSizeEstimate,
                                            final @NotNull Function<? super String, String> indentAddFunction,
                                            final @NotNull Function<? super String, @Nullable String> indentCutFunction) {
@@ -186,7 +189,7 @@ public final class CollectionUtils {
                 return result != null ? indentAddFunction.apply(result) : value;
             }
         });
-        return joinTo(strings, new StringBuilder(resultSizeEstimate), "\n").toString();
+        return joinToString(strings, "\n");
     }
 
     @Contract("_, _, _ -> param2")
@@ -199,41 +202,143 @@ public final class CollectionUtils {
                                                               final @NotNull CharSequence prefix, final @NotNull CharSequence postfix, final int limit,
                                                               final @NotNull CharSequence truncated,
                                                               final @Nullable Function<? super T, ? extends CharSequence> transform) {
+        if (buffer instanceof StringBuilder) {
+            joinToBuilder(iterable, (StringBuilder) buffer, separator, prefix, postfix, limit, truncated, transform);
+            return buffer;
+        }
+        // A single handler for the whole join, as an IOException ends it anyway
         try {
             buffer.append(prefix);
+            int count = 0;
+            for (final T element : iterable) {
+                if (++count > 1) {
+                    buffer.append(separator);
+                }
+                if (limit < 0 || count <= limit) {
+                    appendElement(buffer, element, transform);
+                } else {
+                    break;
+                }
+            }
+            if (limit >= 0 && count > limit) {
+                buffer.append(truncated);
+            }
+            buffer.append(postfix);
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
+        return buffer;
+    }
+
+    // The same as joinTo, appending straight to the builder, which cannot throw IOException.
+    private static <T> void joinToBuilder(final @NotNull Iterable<T> iterable, final @NotNull StringBuilder builder,
+                                          final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                          final @NotNull CharSequence postfix, final int limit, final @NotNull CharSequence truncated,
+                                          final @Nullable Function<? super T, ? extends CharSequence> transform) {
+        builder.append(prefix);
         int count = 0;
         for (final T element : iterable) {
             if (++count > 1) {
-                try {
-                    buffer.append(separator);
-                } catch (final IOException e) {
-                    throw new UncheckedIOException(e);
-                }
+                builder.append(separator);
             }
-
             if (limit < 0 || count <= limit) {
-                appendElement(buffer, element, transform);
+                appendElement(builder, element, transform);
             } else {
                 break;
             }
         }
         if (limit >= 0 && count > limit) {
-            try {
-                buffer.append(truncated);
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
+            builder.append(truncated);
+        }
+        builder.append(postfix);
+    }
+
+    public static @NotNull <T> String joinToString(final @NotNull Iterable<T> iterable, final @NotNull CharSequence separator) {
+        return joinToString(iterable, separator, "", "", -1, "...", null);
+    }
+
+    // Joins the elements as joinTo does. A collection of char sequences without a transform is measured first and copied into a single
+    // array of the exact length; other elements are joined into the scratch builder of the current thread.
+    public static @NotNull <T> String joinToString(final @NotNull Iterable<T> iterable, final @NotNull CharSequence separator,
+                                                   final @NotNull CharSequence prefix, final @NotNull CharSequence postfix, final int limit,
+                                                   final @NotNull CharSequence truncated,
+                                                   final @Nullable Function<? super T, ? extends CharSequence> transform) {
+        if (transform == null && iterable instanceof Collection) {
+            final int length = joinedLength((Collection<?>) iterable, separator, prefix, postfix, limit, truncated);
+            if (length >= 0) {
+                return joinCharSequences((Collection<?>) iterable, length, separator, prefix, postfix, limit, truncated);
             }
         }
+        final StringBuilder builder = ScratchBuilders.acquire();
+        joinToBuilder(iterable, builder, separator, prefix, postfix, limit, truncated, transform);
+        return ScratchBuilders.release(builder);
+    }
 
-        try {
-            buffer.append(postfix);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
+    // Returns the length of the join of the given collection, or -1 if one of the joined elements is not a char sequence or the join would
+    // not fit in a String.
+    private static int joinedLength(final @NotNull Collection<?> collection, final @NotNull CharSequence separator,
+                                    final @NotNull CharSequence prefix, final @NotNull CharSequence postfix, final int limit,
+                                    final @NotNull CharSequence truncated) {
+        long length = (long) prefix.length() + postfix.length();
+        int count = 0;
+        for (final Object element : collection) {
+            if (++count > 1) {
+                length += separator.length();
+            }
+            if (limit >= 0 && count > limit) {
+                length += truncated.length();
+                break;
+            }
+            if (!(element instanceof CharSequence)) {
+                return -1;
+            }
+            length += ((CharSequence) element).length();
         }
-        return buffer;
+        return length <= Integer.MAX_VALUE - 8 ? (int) length : -1;
+    }
+
+    // The same as joinToBuilder for a collection of char sequences, writing into an array of the length measured by joinedLength.
+    private static @NotNull String joinCharSequences(final @NotNull Collection<?> collection, final int length,
+                                                     final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                                     final @NotNull CharSequence postfix, final int limit,
+                                                     final @NotNull CharSequence truncated) {
+        final char[] chars = new char[length];
+        int index = copyChars(prefix, chars, 0);
+        int count = 0;
+        for (final Object element : collection) {
+            if (++count > 1) {
+                index = copyChars(separator, chars, index);
+            }
+            if (limit >= 0 && count > limit) {
+                index = copyChars(truncated, chars, index);
+                break;
+            }
+            index = copyChars((CharSequence) element, chars, index);
+        }
+        index = copyChars(postfix, chars, index);
+        if (index != length) {
+            throw new ConcurrentModificationException("Joined char sequences were modified while joining.");
+        }
+        return new String(chars);
+    }
+
+    // Copies the chars of the given char sequence into the array at index, and returns the index past them. Throws
+    // ConcurrentModificationException if they do not fit, as the array was sized from the lengths measured before.
+    private static int copyChars(final @NotNull CharSequence seq, final @NotNull char[] chars, final int index) {
+        final int length = seq.length();
+        if (length > chars.length - index) {
+            throw new ConcurrentModificationException("Joined char sequences were modified while joining.");
+        }
+        if (seq instanceof String) {
+            ((String) seq).getChars(0, length, chars, index);
+        } else if (seq instanceof StringBuilder) {
+            ((StringBuilder) seq).getChars(0, length, chars, index);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[index + i] = seq.charAt(i);
+            }
+        }
+        return index + length;
     }
 
     public static @NotNull <T, R> List<R> mapIndexedNotNull(final @NotNull Iterable<T> iterable,
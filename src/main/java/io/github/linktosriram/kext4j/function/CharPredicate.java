@@ -0,0 +1,14 @@
+package io.github.linktosriram.kext4j.function;
+
+import org.jetbrains.annotations.NotNull;
+
+// A predicate on a primitive char, avoiding the boxing of Predicate<Character>.
+@FunctionalInterface
+public interface CharPredicate {
+
+    boolean test(char ch);
+
+    default @NotNull CharPredicate negate() {
+        return ch -> !test(ch);
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.linktosriram.kext4j.function;
+
+// An operation mapping a primitive char to another, avoiding the boxing of UnaryOperator<Character>.
+@FunctionalInterface
+public interface CharUnaryOperator {
+
+    char apply(char ch);
+}
@@ -0,0 +1,252 @@
+package io.github.linktosriram.kext4j.io;
+
+import io.github.linktosriram.kext4j.Preconditions;
+import io.github.linktosriram.kext4j.text.DecimalDigits;
+import io.github.linktosriram.kext4j.text.LongAppendable;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * An {@link Appendable} collecting chars into an internal {@code char[]} and writing them to a {@link Writer}, or encoding them to an
+ * {@link OutputStream}, in blocks of the buffer size.
+ * <p>
+ * Appending to a {@link Writer} directly costs one virtual and often synchronized call per fragment, which dominates when joining many small
+ * values with {@code CollectionUtils.joinTo} or {@code SequenceUtils.joinTo}. Fragments appended here are copied into the buffer with
+ * {@link String#getChars} or {@link StringBuilder#getChars} when possible, and reach the destination only when the buffer is full or on
+ * {@link #flush()} and {@link #close()}. The decimal representation of {@code int} and {@code long} values is written straight into the
+ * buffer by {@link #append(long)}, without a temporary {@link String}. Malformed and unmappable chars are replaced when encoding, as
+ * {@link java.io.OutputStreamWriter} does.
+ * <p>
+ * I/O errors are rethrown as {@link UncheckedIOException}, as is appending or flushing after {@link #close()}, while closing again has no
+ * effect. This class is not thread-safe.
+ */
+public final class BufferedAppendable implements LongAppendable, Flushable, Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final char[] chars;
+    private int size;
+    private final @Nullable Writer writer;
+    private final @Nullable OutputStream out;
+    private final @Nullable CharsetEncoder encoder;
+    private final @Nullable ByteBuffer bytes;
+    private boolean closed;
+
+    public BufferedAppendable(final @NotNull Writer writer) {
+        this(writer, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BufferedAppendable(final @NotNull Writer writer, final int bufferSize) {
+        Preconditions.require(bufferSize > 0, () -> "bufferSize " + bufferSize + " must be greater than zero.");
+        this.chars = new char[bufferSize];
+        this.writer = writer;
+        this.out = null;
+        this.encoder = null;
+        this.bytes = null;
+    }
+
+    public BufferedAppendable(final @NotNull OutputStream out, final @NotNull Charset charset) {
+        this(out, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    // Creates an appendable encoding to the given stream. The buffer holds at least two chars, so that it always has room for a surrogate pair.
+    public BufferedAppendable(final @NotNull OutputStream out, final @NotNull Charset charset, final int bufferSize) {
+        Preconditions.require(bufferSize > 1, () -> "bufferSize " + bufferSize + " must be greater than one.");
+        this.chars = new char[bufferSize];
+        this.writer = null;
+        this.out = out;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(bufferSize * (double) encoder.maxBytesPerChar())));
+    }
+
+    @Override
+    @Contract("_ -> this")
+    public @NotNull BufferedAppendable append(final @Nullable CharSequence csq) {
+        final CharSequence seq = csq != null ? csq : "null";
+        return append(seq, 0, seq.length());
+    }
+
+    @Override
+    @Contract("_, _, _ -> this")
+    public @NotNull BufferedAppendable append(final @Nullable CharSequence csq, int start, final int end) {
+        final CharSequence seq = csq != null ? csq : "null";
+        if (start < 0 || start > end || end > seq.length()) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + seq.length());
+        }
+        ensureOpen();
+        while (start < end) {
+            if (size == chars.length) {
+                drain();
+            }
+            final int count = Math.min(end - start, chars.length - size);
+            if (seq instanceof String) {
+                ((String) seq).getChars(start, start + count, chars, size);
+            } else if (seq instanceof StringBuilder) {
+                ((StringBuilder) seq).getChars(start, start + count, chars, size);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    chars[size + i] = seq.charAt(start + i);
+                }
+            }
+            size += count;
+            start += count;
+        }
+        return this;
+    }
+
+    @Override
+    @Contract("_ -> this")
+    public @NotNull BufferedAppendable append(final char c) {
+        ensureOpen();
+        if (size == chars.length) {
+            drain();
+        }
+        chars[size++] = c;
+        return this;
+    }
+
+    // Appends the given range of the char array.
+    @Contract("_, _, _ -> this")
+    public @NotNull BufferedAppendable append(final @NotNull char[] str, int offset, final int length) {
+        if (offset < 0 || length < 0 || length > str.length - offset) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + str.length);
+        }
+        ensureOpen();
+        final int end = offset + length;
+        while (offset < end) {
+            if (size == chars.length) {
+                drain();
+            }
+            final int count = Math.min(end - offset, chars.length - size);
+            System.arraycopy(str, offset, chars, size, count);
+            size += count;
+            offset += count;
+        }
+        return this;
+    }
+
+    // Appends the decimal representation of the given value, as Long.toString(long) would.
+    @Override
+    @Contract("_ -> this")
+    public @NotNull BufferedAppendable append(final long value) {
+        ensureOpen();
+        if (chars.length - size < DecimalDigits.MAX_LONG_LENGTH) {
+            drain();
+            if (chars.length - size < DecimalDigits.MAX_LONG_LENGTH) {
+                // A buffer too small for any long takes the digits through a String
+                return append(Long.toString(value));
+            }
+        }
+        size += DecimalDigits.stringSize(value);
+        DecimalDigits.getChars(value, size, chars);
+        return this;
+    }
+
+    // Writes the buffered chars and flushes the destination. With an OutputStream, the high half of a surrogate pair stays buffered until its
+    // low half is appended.
+    @Override
+    public void flush() {
+        ensureOpen();
+        drain();
+        try {
+            if (writer != null) {
+                writer.flush();
+            } else {
+                out.flush();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Writes the buffered chars and closes the destination, unless already closed.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        // Marked first, so that a close failing halfway is not attempted again on an encoder in an unknown state
+        closed = true;
+        // The destination is closed even if writing the buffered chars fails
+        try {
+            if (writer != null) {
+                try {
+                    drain();
+                } finally {
+                    writer.close();
+                }
+                return;
+            }
+            try {
+                final CharBuffer in = CharBuffer.wrap(chars, 0, size);
+                encode(in, true);
+                size = 0;
+                while (encoder.flush(bytes).isOverflow()) {
+                    writeBytes();
+                }
+                writeBytes();
+            } finally {
+                out.close();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new UncheckedIOException(new IOException("Appendable closed"));
+        }
+    }
+
+    // Writes the buffered chars to the destination, keeping only an incomplete surrogate pair when encoding.
+    private void drain() {
+        try {
+            if (writer != null) {
+                writer.write(chars, 0, size);
+                size = 0;
+                return;
+            }
+            final CharBuffer in = CharBuffer.wrap(chars, 0, size);
+            encode(in, false);
+            size = in.remaining();
+            System.arraycopy(chars, in.position(), chars, 0, size);
+            writeBytes();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void encode(final @NotNull CharBuffer in, final boolean endOfInput) throws IOException {
+        while (true) {
+            final CoderResult result = encoder.encode(in, bytes, endOfInput);
+            if (!result.isOverflow()) {
+                break;
+            }
+            writeBytes();
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.linktosriram.kext4j.io;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A byte range {@code [start, end)} of a file. Segments produced by {@link LineAlignedFileScanner} always start at the beginning of a line and
+ * end right after a line feed or at the end of the file.
+ */
+public final class FileSegment {
+
+    private final int index;
+    private final long start;
+    private final long end;
+
+    @Contract(pure = true)
+    public FileSegment(final int index, final long start, final long end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid segment bounds: start " + start + ", end " + end + ".");
+        }
+        this.index = index;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Returns the position of this segment among all segments of the file.
+    @Contract(pure = true)
+    public int getIndex() {
+        return index;
+    }
+
+    // Returns the offset of the first byte of this segment.
+    @Contract(pure = true)
+    public long getStart() {
+        return start;
+    }
+
+    // Returns the offset right after the last byte of this segment.
+    @Contract(pure = true)
+    public long getEnd() {
+        return end;
+    }
+
+    // Returns the number of bytes in this segment.
+    @Contract(pure = true)
+    public long getLength() {
+        return end - start;
+    }
+
+    @Override
+    @Contract(value = "null -> false", pure = true)
+    public boolean equals(final Object obj) {
+        if (obj instanceof FileSegment) {
+            final FileSegment other = (FileSegment) obj;
+            return index == other.index && start == other.start && end == other.end;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * index + Long.hashCode(start)) + Long.hashCode(end);
+    }
+
+    @NonNls
+    @Override
+    public @NotNull String toString() {
+        return "#" + index + " [" + start + ", " + end + ")";
+    }
+}
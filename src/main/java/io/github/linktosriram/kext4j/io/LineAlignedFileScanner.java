@@ -0,0 +1,373 @@
+package io.github.linktosriram.kext4j.io;
+
+import io.github.linktosriram.kext4j.Preconditions;
+import io.github.linktosriram.kext4j.sequence.Sequence;
+import io.github.linktosriram.kext4j.sequence.SequenceUtils;
+import io.github.linktosriram.kext4j.text.StringUtils;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Splits a file into byte ranges aligned to line boundaries and processes each range on a separate thread.
+ * <p>
+ * The boundaries are computed by probing for {@code '\n'} right after every {@code segmentSize} bytes, so each {@link FileSegment} contains only
+ * whole lines. Segments are memory mapped, decoded and handed to the transform as a {@link CharSequence} without their terminating line
+ * separator, which makes {@link StringUtils#lineSequence(CharSequence)} over a segment yield exactly the lines of that segment.
+ * <p>
+ * The charset must encode a line feed as the single byte {@code 0x0A} and never use that byte inside another character, which holds for UTF-8,
+ * US-ASCII and the ISO-8859 family.
+ * <p>
+ * At most {@code 2 * parallelism} segments are in flight at any time, so memory use is bounded regardless of the file size.
+ * <p>
+ * Unless given an executor, the scanner reads and transforms segments on a pool of {@code parallelism} daemon threads of its own, rather than
+ * blocking threads of a shared pool on file reads; idle threads exit after a while. The segments still in flight are cancelled when an
+ * iteration fails, and those of all iterations when the scanner is {@linkplain #close() closed}, which also shuts down its own pool. An
+ * iteration stopped early keeps its segments in flight until then.
+ */
+public class LineAlignedFileScanner implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 8 * 1024 * 1024;
+
+    private static final int PROBE_SIZE = 8 * 1024;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Path path;
+    private final Charset charset;
+    private final int segmentSize;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final boolean ownsExecutor;
+    // Iterations with segments in flight, cancelled on close
+    private final Set<SegmentIterator<?>> iterations = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public LineAlignedFileScanner(final @NotNull Path path) {
+        this(path, UTF_8);
+    }
+
+    public LineAlignedFileScanner(final @NotNull Path path, final @NotNull Charset charset) {
+        this(path, charset, DEFAULT_SEGMENT_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Creates a scanner processing segments on a pool of its own, of parallelism threads, shut down by close.
+    public LineAlignedFileScanner(final @NotNull Path path, final @NotNull Charset charset, final int segmentSize, final int parallelism) {
+        this(path, charset, segmentSize, newExecutor(parallelism), parallelism, true);
+    }
+
+    // Creates a scanner processing segments on the given executor, which close leaves running.
+    public LineAlignedFileScanner(final @NotNull Path path, final @NotNull Charset charset, final int segmentSize, final @NotNull ExecutorService executor,
+                                  final int parallelism) {
+        this(path, charset, segmentSize, executor, parallelism, false);
+    }
+
+    private LineAlignedFileScanner(final @NotNull Path path, final @NotNull Charset charset, final int segmentSize, final @NotNull ExecutorService executor,
+                                   final int parallelism, final boolean ownsExecutor) {
+        Preconditions.require(segmentSize > 0, () -> "segmentSize " + segmentSize + " must be greater than zero.");
+        Preconditions.require(parallelism > 0, () -> "parallelism " + parallelism + " must be greater than zero.");
+        final byte[] lineFeed = "\n".getBytes(charset);
+        Preconditions.require(lineFeed.length == 1 && lineFeed[0] == '\n', () -> "Charset " + charset + " does not encode a line feed as a single byte.");
+        this.path = path;
+        this.charset = charset;
+        this.segmentSize = segmentSize;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    private static @NotNull ExecutorService newExecutor(final int parallelism) {
+        // The parallelism is validated by the constructor, after the pool is created, which starts no thread before the first task
+        final int threads = Math.max(1, parallelism);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            runnable -> {
+                final Thread thread = new Thread(runnable, "line-aligned-file-scanner-" + THREAD_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        // Idle threads exit, so that a scanner which is never closed does not keep them alive
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Cancels the segments in flight of all iterations and shuts down the pool of the scanner, unless it was given an executor. Iterating
+    // afterwards throws IllegalStateException. Closing again has no effect.
+    @Override
+    public void close() {
+        closed = true;
+        for (final SegmentIterator<?> iteration : iterations) {
+            iteration.cancel();
+        }
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Computes the line aligned segments of the file. Every segment except the last one ends right after a line feed.
+    public @NotNull List<FileSegment> segments() {
+        try (final FileChannel channel = FileChannel.open(path, READ)) {
+            final long size = channel.size();
+            final List<FileSegment> segments = new ArrayList<>((int) Math.min(size / segmentSize + 1, Integer.MAX_VALUE));
+            final ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+            long start = 0;
+            while (start < size) {
+                final long target = start + segmentSize;
+                final long end = target >= size ? size : nextLineStart(channel, probe, target - 1, size);
+                segments.add(new FileSegment(segments.size(), start, end));
+                start = end;
+            }
+            return segments;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Applies the transform to every segment in parallel. When ordered is true the results are returned in file order, otherwise in the order in
+    // which the segments complete.
+    @Contract(pure = true)
+    public @NotNull <R> Sequence<R> map(final @NotNull Function<? super CharSequence, ? extends R> transform, final boolean ordered) {
+        return () -> {
+            ensureOpen();
+            final Iterator<FileSegment> segments = segments().iterator();
+            return ordered ? new OrderedIterator<>(segments, transform) : new UnorderedIterator<>(segments, transform);
+        };
+    }
+
+    // Applies the transform to every line of the file in parallel. When ordered is true the results are returned in file order, otherwise the
+    // results of a segment stay together but segments are returned in the order in which they complete.
+    // A line separator at the very end of the file does not produce a trailing empty line.
+    @Contract(pure = true)
+    public @NotNull <R> Sequence<R> mapLines(final @NotNull Function<? super String, ? extends R> transform, final boolean ordered) {
+        final Sequence<List<R>> chunks = map(segment -> SequenceUtils.toMutableList(SequenceUtils.<String, R>map(StringUtils.lineSequence(segment), transform)),
+            ordered);
+        return SequenceUtils.flatten(chunks);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Scanner is closed.");
+        }
+    }
+
+    private static long nextLineStart(final @NotNull FileChannel channel, final @NotNull ByteBuffer probe, final long from, final long size)
+        throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            final int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private @NotNull CharSequence read(final @NotNull FileSegment segment) {
+        final long length = segment.getLength();
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Segment " + segment + " contains a line longer than " + Integer.MAX_VALUE + " bytes.");
+        }
+        try (final FileChannel channel = FileChannel.open(path, READ)) {
+            final MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, segment.getStart(), length);
+            final CharBuffer chars = charset.decode(bytes);
+            int end = chars.length();
+            if (end > 0 && chars.charAt(end - 1) == '\n') {
+                end--;
+                if (end > 0 && chars.charAt(end - 1) == '\r') {
+                    end--;
+                }
+            }
+            return chars.subSequence(0, end);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <R> R await(final @NotNull Future<R> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a segment to be processed.", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private abstract class SegmentIterator<R> implements Iterator<R> {
+
+        private final Iterator<FileSegment> segments;
+        private final Function<? super CharSequence, ? extends R> transform;
+        int inFlight;
+
+        SegmentIterator(final Iterator<FileSegment> segments, final Function<? super CharSequence, ? extends R> transform) {
+            this.segments = segments;
+            this.transform = transform;
+        }
+
+        abstract void submit(Callable<R> task);
+
+        // Cancels the segments in flight, which may be called from another thread when the scanner is closed.
+        abstract void cancel();
+
+        final void fill() {
+            ensureOpen();
+            if (inFlight < 2 * parallelism && segments.hasNext()) {
+                iterations.add(this);
+            }
+            while (inFlight < 2 * parallelism && segments.hasNext()) {
+                final FileSegment segment = segments.next();
+                submit(() -> transform.apply(read(segment)));
+                inFlight++;
+            }
+        }
+
+        final boolean hasPendingSegments() {
+            return segments.hasNext();
+        }
+
+        // Waits for the result of the given segment. The other segments in flight are cancelled if it failed, and the iteration is forgotten
+        // once it has nothing left in flight.
+        final R result(final @NotNull Future<R> future) {
+            final R result;
+            try {
+                result = await(future);
+            } catch (final RuntimeException | Error e) {
+                cancel();
+                iterations.remove(this);
+                throw e;
+            }
+            fill();
+            if (inFlight == 0) {
+                iterations.remove(this);
+            }
+            return result;
+        }
+    }
+
+    private final class OrderedIterator<R> extends SegmentIterator<R> {
+
+        private final ConcurrentLinkedQueue<Future<R>> futures = new ConcurrentLinkedQueue<>();
+
+        OrderedIterator(final Iterator<FileSegment> segments, final Function<? super CharSequence, ? extends R> transform) {
+            super(segments, transform);
+        }
+
+        @Override
+        void submit(final Callable<R> task) {
+            futures.add(executor.submit(task));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !futures.isEmpty() || hasPendingSegments();
+        }
+
+        @Override
+        public R next() {
+            fill();
+            final Future<R> future = futures.poll();
+            if (future == null) {
+                throw new NoSuchElementException();
+            }
+            inFlight--;
+            return result(future);
+        }
+
+        @Override
+        void cancel() {
+            for (final Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private final class UnorderedIterator<R> extends SegmentIterator<R> {
+
+        private final CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        // The futures submitted and not yet taken, which the completion service does not expose
+        private final Set<Future<R>> pending = ConcurrentHashMap.newKeySet();
+
+        UnorderedIterator(final Iterator<FileSegment> segments, final Function<? super CharSequence, ? extends R> transform) {
+            super(segments, transform);
+        }
+
+        @Override
+        void submit(final Callable<R> task) {
+            pending.add(completionService.submit(task));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inFlight > 0 || hasPendingSegments();
+        }
+
+        @Override
+        public R next() {
+            fill();
+            if (inFlight == 0) {
+                throw new NoSuchElementException();
+            }
+            final Future<R> future;
+            try {
+                future = completionService.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a segment to be processed.", e);
+            }
+            pending.remove(future);
+            inFlight--;
+            return result(future);
+        }
+
+        @Override
+        void cancel() {
+            for (final Future<R> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.linktosriram.kext4j.sequence;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class FlatteningSequence<T> implements Sequence<T> {
+
+    private final Sequence<? extends Iterable<? extends T>> sequence;
+
+    @Contract(pure = true)
+    FlatteningSequence(final Sequence<? extends Iterable<? extends T>> sequence) {
+        this.sequence = sequence;
+    }
+
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private final Iterator<? extends Iterable<? extends T>> iterator = sequence.iterator();
+            private @Nullable Iterator<? extends T> itemIterator;
+
+            private boolean ensureItemIterator() {
+                while (itemIterator == null || !itemIterator.hasNext()) {
+                    if (!iterator.hasNext()) {
+                        itemIterator = null;
+                        return false;
+                    }
+                    itemIterator = iterator.next().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public T next() {
+                if (!ensureItemIterator()) {
+                    throw new NoSuchElementException();
+                }
+                return itemIterator.next();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return ensureItemIterator();
+            }
+        };
+    }
+}
@@ -0,0 +1,354 @@
+package io.github.linktosriram.kext4j.sequence;
+
+import io.github.linktosriram.kext4j.Pair;
+import io.github.linktosriram.kext4j.range.IntRange;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static io.github.linktosriram.kext4j.collection.CollectionUtils.optimizeReadOnlyList;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+/**
+ * Splits delimited records (CSV, TSV...) into fields, honouring quoted fields which may contain delimiters, line breaks and escaped quotes.
+ * <p>
+ * A field is quoted when its first char is the quote char, and ends at the next unescaped quote. Inside a quoted field, the escape char makes
+ * the following char literal; when the escape char is the quote char itself (the CSV convention), a doubled quote stands for one quote. Quote
+ * chars inside unquoted fields are kept as is.
+ * <p>
+ * {@link #fieldRanges(CharSequence)} returns the raw range of each field on top of {@link DelimitedRangesSequence}, without copying anything,
+ * and {@link #field(CharSequence, IntRange)} decodes one of them, only unescaping it when it actually contains escapes. Records spanning
+ * several lines are found by {@link #recordRanges(CharSequence)} in memory, and by {@link #records(Reader)} when streaming.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class QuotedFieldTokenizer {
+
+    public static final QuotedFieldTokenizer CSV = new QuotedFieldTokenizer(',', '"', '"');
+    public static final QuotedFieldTokenizer TSV = new QuotedFieldTokenizer('\t', '"', '"');
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char delimiter;
+    private final char quote;
+    private final char escape;
+
+    public QuotedFieldTokenizer(final char delimiter) {
+        this(delimiter, '"', '"');
+    }
+
+    // Creates a tokenizer on the given delimiter, quote and escape chars. The escape char may be the quote char, the delimiter may not.
+    public QuotedFieldTokenizer(final char delimiter, final char quote, final char escape) {
+        if (delimiter == quote || delimiter == escape) {
+            throw new IllegalArgumentException("Delimiter must differ from the quote and escape chars, but was '" + delimiter + '\'');
+        }
+        if (isLineBreak(delimiter) || isLineBreak(quote) || isLineBreak(escape)) {
+            throw new IllegalArgumentException("Delimiter, quote and escape chars must not be line breaks");
+        }
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.escape = escape;
+    }
+
+    // Returns the raw ranges of the fields of the given record, including the quotes of quoted fields.
+    @Contract(value = "_ -> new", pure = true)
+    public @NotNull Sequence<IntRange> fieldRanges(final @NotNull CharSequence record) {
+        return new DelimitedRangesSequence(record, 0, 0, this::nextDelimiter);
+    }
+
+    // Returns the decoded fields of the given record.
+    public @NotNull List<String> split(final @NotNull CharSequence record) {
+        final List<String> result = new ArrayList<>();
+        final Iterator<IntRange> iterator = fieldRanges(record).iterator();
+        while (iterator.hasNext()) {
+            result.add(field(record, iterator.next()));
+        }
+        return optimizeReadOnlyList(result);
+    }
+
+    // Lazily returns the decoded fields of the given record.
+    @Contract(value = "_ -> new", pure = true)
+    public @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence record) {
+        return SequenceUtils.map(fieldRanges(record), range -> field(record, range));
+    }
+
+    // Decodes the field with the given raw range, as returned by fieldRanges: quotes are removed and escapes resolved. Fields without escapes
+    // are returned as plain substrings.
+    public @NotNull String field(final @NotNull CharSequence record, final @NotNull IntRange range) {
+        final int start = range.getStart();
+        final int end = range.getEndInclusive() + 1;
+        if (start >= end || record.charAt(start) != quote) {
+            return record.subSequence(start, end).toString();
+        }
+        final int closing = closingQuote(record, start + 1, end);
+        final int contentEnd = closing < 0 ? end : closing;
+        final String content = hasEscapes(record, start + 1, contentEnd) ?
+            unescape(record, start + 1, contentEnd) :
+            record.subSequence(start + 1, contentEnd).toString();
+        // Lenient about chars between the closing quote and the delimiter, which are kept as is
+        return closing < 0 || closing + 1 == end ? content : content + record.subSequence(closing + 1, end);
+    }
+
+    // Returns the ranges of the records of the given text, which are separated by CR, LF or CRLF outside of quoted fields. A line break at the
+    // very end of the text does not start a new record.
+    @Contract(value = "_ -> new", pure = true)
+    public @NotNull Sequence<IntRange> recordRanges(final @NotNull CharSequence text) {
+        return () -> new Iterator<IntRange>() {
+            private final RecordState state = new RecordState();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < text.length();
+            }
+
+            @Override
+            public IntRange next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                state.reset();
+                final int start = position;
+                final int lineBreak = state.feed(text, start, text.length());
+                if (lineBreak < 0) {
+                    position = text.length();
+                    return new IntRange(start, position - 1);
+                }
+                position = lineBreak + lineBreakLength(text, lineBreak, text.length());
+                return new IntRange(start, lineBreak - 1);
+            }
+        };
+    }
+
+    // Lazily reads the records of the given reader, each one possibly spanning several lines when quoted fields contain line breaks, which are
+    // kept as they appear in the input. The reader is not closed.
+    @Contract(value = "_ -> new", pure = true)
+    public @NotNull Sequence<String> records(final @NotNull Reader reader) {
+        return () -> new RecordIterator(reader);
+    }
+
+    // Lazily reads and splits the records of the given reader. The reader is not closed.
+    @Contract(value = "_ -> new", pure = true)
+    public @NotNull Sequence<List<String>> rows(final @NotNull Reader reader) {
+        return SequenceUtils.map(records(reader), this::split);
+    }
+
+    // Finds the delimiter ending the field starting at startIndex, skipping over its quoted part if any.
+    private @NotNull Optional<Pair<Integer, Integer>> nextDelimiter(final @NotNull CharSequence seq, final int startIndex) {
+        final int length = seq.length();
+        int i = startIndex;
+        if (i < length && seq.charAt(i) == quote) {
+            final int closing = closingQuote(seq, i + 1, length);
+            if (closing < 0) {
+                return empty();
+            }
+            i = closing + 1;
+        }
+        for (; i < length; i++) {
+            if (seq.charAt(i) == delimiter) {
+                return of(new Pair<>(i, 1));
+            }
+        }
+        return empty();
+    }
+
+    // Returns the index of the quote closing a quoted field whose content starts at startIndex, or -1 if it is not closed before endIndex.
+    private int closingQuote(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        int i = startIndex;
+        while (i < endIndex) {
+            final char ch = seq.charAt(i);
+            if (ch == quote) {
+                if (escape == quote && i + 1 < endIndex && seq.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i += ch == escape ? 2 : 1;
+        }
+        return -1;
+    }
+
+    private boolean hasEscapes(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        for (int i = startIndex; i < endIndex; i++) {
+            if (seq.charAt(i) == escape) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private @NotNull String unescape(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final StringBuilder builder = new StringBuilder(endIndex - startIndex);
+        for (int i = startIndex; i < endIndex; i++) {
+            final char ch = seq.charAt(i);
+            if (ch == escape && i + 1 < endIndex) {
+                i++;
+                builder.append(seq.charAt(i));
+            } else {
+                builder.append(ch);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isLineBreak(final char ch) {
+        return ch == '\n' || ch == '\r';
+    }
+
+    private static int lineBreakLength(final @NotNull CharSequence seq, final int index, final int endIndex) {
+        return seq.charAt(index) == '\r' && index + 1 < endIndex && seq.charAt(index + 1) == '\n' ? 2 : 1;
+    }
+
+    // Tracks whether the scan is inside a quoted field, so that record boundaries can be found across several chunks of input.
+    private final class RecordState {
+
+        private boolean fieldStart = true;
+        private boolean inQuotes;
+        // Inside quotes, after an escape char which is not the quote char
+        private boolean pendingEscape;
+        // Inside quotes, after a quote which is either closing or the first half of a doubled quote
+        private boolean pendingQuote;
+
+        void reset() {
+            fieldStart = true;
+            inQuotes = false;
+            pendingEscape = false;
+            pendingQuote = false;
+        }
+
+        // Returns the index of the first line break ending the record in [startIndex, endIndex), or -1 if the record goes on.
+        int feed(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            for (int i = startIndex; i < endIndex; i++) {
+                final char ch = seq.charAt(i);
+                if (inQuotes) {
+                    if (pendingEscape) {
+                        pendingEscape = false;
+                        continue;
+                    }
+                    if (pendingQuote) {
+                        pendingQuote = false;
+                        if (ch == quote) {
+                            continue;
+                        }
+                        inQuotes = false;
+                    } else {
+                        if (ch == quote) {
+                            if (escape == quote) {
+                                pendingQuote = true;
+                            } else {
+                                inQuotes = false;
+                            }
+                        } else if (ch == escape) {
+                            pendingEscape = true;
+                        }
+                        continue;
+                    }
+                }
+                if (isLineBreak(ch)) {
+                    return i;
+                }
+                if (ch == delimiter) {
+                    fieldStart = true;
+                } else {
+                    inQuotes = fieldStart && ch == quote;
+                    fieldStart = false;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final class RecordIterator implements Iterator<String> {
+
+        private final Reader reader;
+        private final RecordState state = new RecordState();
+        private final StringBuilder buffer = new StringBuilder();
+        private final char[] chunk = new char[BUFFER_SIZE];
+        // Start of the unconsumed part of buffer
+        private int position;
+        private boolean eof;
+        private @Nullable String next;
+
+        RecordIterator(final @NotNull Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = readRecord();
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String result = next;
+            next = null;
+            return result;
+        }
+
+        private @Nullable String readRecord() {
+            state.reset();
+            int scanned = position;
+            while (true) {
+                final int lineBreak = state.feed(buffer, scanned, buffer.length());
+                if (lineBreak >= 0) {
+                    // A CR at the end of the buffer may be the first half of a CRLF
+                    if (buffer.charAt(lineBreak) == '\r' && lineBreak + 1 == buffer.length() && !eof) {
+                        fill();
+                    }
+                    final String record = buffer.substring(position, lineBreak);
+                    position = lineBreak + lineBreakLength(buffer, lineBreak, buffer.length());
+                    compact();
+                    return record;
+                }
+                scanned = buffer.length();
+                if (eof) {
+                    if (position == buffer.length()) {
+                        return null;
+                    }
+                    final String record = buffer.substring(position);
+                    position = buffer.length();
+                    return record;
+                }
+                fill();
+            }
+        }
+
+        private void fill() {
+            try {
+                final int read = reader.read(chunk);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    buffer.append(chunk, 0, read);
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Drops consumed chars once they make up most of the buffer, so long inputs do not accumulate.
+        private void compact() {
+            if (position >= BUFFER_SIZE && position * 2 >= buffer.length()) {
+                buffer.delete(0, position);
+                position = 0;
+            }
+        }
+    }
+}
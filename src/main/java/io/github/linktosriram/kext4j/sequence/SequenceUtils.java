@@ -1,5 +1,7 @@
 package io.github.linktosriram.kext4j.sequence;
 
+import io.github.linktosriram.kext4j.text.ScratchBuilders;
+import io.github.linktosriram.kext4j.text.StringArena;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -27,6 +29,12 @@ public final class SequenceUtils {
         return new TransformingSequence<>(seq, transform);
     }
 
+    // Returns a sequence of all elements from all iterables in this sequence.
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull <T> Sequence<T> flatten(final @NotNull Sequence<? extends Iterable<? extends T>> seq) {
+        return new FlatteningSequence<>(seq);
+    }
+
     public static @NotNull <T> List<T> toList(final @NotNull Sequence<T> seq) {
         return optimizeReadOnlyList(toMutableList(seq));
     }
@@ -44,16 +52,34 @@ public final class SequenceUtils {
         return destination;
     }
 
+    // Packs all char sequences of this sequence into a new StringArena, in iteration order.
+    public static @NotNull StringArena toStringArena(final @NotNull Sequence<? extends CharSequence> seq) {
+        return toStringArena(seq, new StringArena());
+    }
+
+    // Appends all char sequences of this sequence to the given StringArena, in iteration order.
+    @Contract("_, _ -> param2")
+    public static @NotNull StringArena toStringArena(final @NotNull Sequence<? extends CharSequence> seq, final @NotNull StringArena destination) {
+        final Iterator<? extends CharSequence> iterator = seq.iterator();
+        while (iterator.hasNext()) {
+            destination.add(iterator.next());
+        }
+        return destination;
+    }
+
     // TODO: implement overloads
     public static @NotNull <T> String joinToString(final @NotNull Sequence<T> seq, final @NotNull CharSequence separator) {
         return joinToString(seq, separator, "", "", -1, "...", null);
     }
 
+    // Joins the elements as joinTo does, into the scratch builder of the current thread, as the length of a sequence is not known up front.
     public static @NotNull <T> String joinToString(final @NotNull Sequence<T> seq, final @NotNull CharSequence separator,
                                                    final @NotNull CharSequence prefix, final @NotNull CharSequence postfix, final int limit,
                                                    final @NotNull CharSequence truncated,
                                                    final @Nullable Function<? super T, ? extends CharSequence> transform) {
-        return joinTo(seq, new StringBuilder(), separator, prefix, postfix, limit, truncated, transform).toString();
+        final StringBuilder builder = ScratchBuilders.acquire();
+        joinTo(seq, builder, separator, prefix, postfix, limit, truncated, transform);
+        return ScratchBuilders.release(builder);
     }
 
     @Contract("_, _, _, _, _, _, _, _ -> param2")
@@ -61,43 +87,59 @@ public final class SequenceUtils {
                                                      final @NotNull CharSequence prefix, final @NotNull CharSequence postfix, final int limit,
                                                      final @NotNull CharSequence truncated,
                                                      final @Nullable Function<? super T, ? extends CharSequence> transform) {
+        if (buffer instanceof StringBuilder) {
+            joinToBuilder(seq, (StringBuilder) buffer, separator, prefix, postfix, limit, truncated, transform);
+            return buffer;
+        }
+        // A single handler for the whole join, as an IOException ends it anyway
         try {
             buffer.append(prefix);
+            int count = 0;
+            final Iterator<T> iterator = seq.iterator();
+            while (iterator.hasNext()) {
+                if (++count > 1) {
+                    buffer.append(separator);
+                }
+                if (limit < 0 || count <= limit) {
+                    final T element = iterator.next();
+                    appendElement(buffer, element, transform);
+                } else {
+                    break;
+                }
+            }
+            if (limit >= 0 && count > limit) {
+                buffer.append(truncated);
+            }
+            buffer.append(postfix);
         } catch (final IOException e) {
             throw new UncheckedIOException(e);
         }
+        return buffer;
+    }
+
+    // The same as joinTo, appending straight to the builder, which cannot throw IOException.
+    private static <T> void joinToBuilder(final @NotNull Sequence<T> seq, final @NotNull StringBuilder builder,
+                                          final @NotNull CharSequence separator, final @NotNull CharSequence prefix,
+                                          final @NotNull CharSequence postfix, final int limit, final @NotNull CharSequence truncated,
+                                          final @Nullable Function<? super T, ? extends CharSequence> transform) {
+        builder.append(prefix);
         int count = 0;
         final Iterator<T> iterator = seq.iterator();
         while (iterator.hasNext()) {
             if (++count > 1) {
-                try {
-                    buffer.append(separator);
-                } catch (final IOException e) {
-                    throw new UncheckedIOException(e);
-                }
+                builder.append(separator);
             }
-
             if (limit < 0 || count <= limit) {
                 final T element = iterator.next();
-                appendElement(buffer, element, transform);
+                appendElement(builder, element, transform);
             } else {
                 break;
             }
         }
         if (limit >= 0 && count > limit) {
-            try {
-                buffer.append(truncated);
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        }
-
-        try {
-            buffer.append(postfix);
-        } catch (final IOException e) {
-            throw new UncheckedIOException(e);
+            builder.append(truncated);
         }
-        return buffer;
+        builder.append(postfix);
     }
 
     @Contract(pure = true)
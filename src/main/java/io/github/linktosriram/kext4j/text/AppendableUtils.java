@@ -6,6 +6,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.function.Function;
 
 public final class AppendableUtils {
@@ -17,30 +18,74 @@ public final class AppendableUtils {
 
     public static <T> void appendElement(final @NotNull Appendable appendable, final @NotNull T element,
                                          final @Nullable Function<T, ? extends CharSequence> transform) {
-        if (transform != null) {
-            try {
+        if (appendable instanceof StringBuilder) {
+            appendElement((StringBuilder) appendable, element, transform);
+            return;
+        }
+        try {
+            if (transform != null) {
                 appendable.append(transform.apply(element));
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        } else if (element instanceof CharSequence) {
-            try {
+            } else if (element instanceof CharSequence) {
                 appendable.append((CharSequence) element);
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        } else if (element instanceof Character) {
-            try {
+            } else if (element instanceof Character) {
                 appendable.append((Character) element);
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
+            } else if (element instanceof Integer || element instanceof Long || element instanceof Short || element instanceof Byte) {
+                appendLong(appendable, ((Number) element).longValue());
+            } else {
+                appendable.append(element.toString());
             }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The same as appendElement(Appendable, T, Function), without the exception handling and interface dispatch a StringBuilder does not need.
+    public static <T> void appendElement(final @NotNull StringBuilder builder, final @NotNull T element,
+                                         final @Nullable Function<T, ? extends CharSequence> transform) {
+        if (transform != null) {
+            builder.append(transform.apply(element));
+        } else if (element instanceof String) {
+            builder.append((String) element);
+        } else if (element instanceof CharSequence) {
+            builder.append((CharSequence) element);
+        } else if (element instanceof Character) {
+            builder.append((char) (Character) element);
+        } else if (element instanceof Integer) {
+            builder.append((int) (Integer) element);
+        } else if (element instanceof Long) {
+            builder.append((long) (Long) element);
+        } else if (element instanceof Double) {
+            builder.append((double) (Double) element);
+        } else if (element instanceof Float) {
+            builder.append((float) (Float) element);
+        } else if (element instanceof Short || element instanceof Byte) {
+            builder.append(((Number) element).intValue());
         } else {
-            try {
-                appendable.append(element.toString());
-            } catch (final IOException e) {
-                throw new UncheckedIOException(e);
+            builder.append(element.toString());
+        }
+    }
+
+    // Appends the decimal representation of the given value, straight into the buffer of a StringBuilder or LongAppendable and through the
+    // per-thread chunk buffer to a Writer. Other appendables take a String, as they may copy the chars anyway.
+    public static void appendLong(final @NotNull Appendable appendable, final long value) {
+        try {
+            if (appendable instanceof StringBuilder) {
+                ((StringBuilder) appendable).append(value);
+            } else if (appendable instanceof LongAppendable) {
+                ((LongAppendable) appendable).append(value);
+            } else if (appendable instanceof Writer) {
+                final char[] digits = CharChunks.acquire();
+                try {
+                    final int startIndex = DecimalDigits.getChars(value, DecimalDigits.MAX_LONG_LENGTH, digits);
+                    ((Writer) appendable).write(digits, startIndex, DecimalDigits.MAX_LONG_LENGTH - startIndex);
+                } finally {
+                    CharChunks.release(digits);
+                }
+            } else {
+                appendable.append(Long.toString(value));
             }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 }
@@ -0,0 +1,232 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Bit-parallel edit distance computation (Myers 1999, in the blocked form of Hyyro 2003).
+// A column of the dynamic programming matrix of the Levenshtein distance between the pattern and the text is held as two bit vectors, the
+// positions where the value goes up and where it goes down from one row to the next, in blocks of 64 rows. Each text char advances all the
+// rows of a block with a few word operations, carrying the change of the last row to the next block, so comparing a text of length n costs
+// O(n * ceil(m / 64)) for a pattern of length m. Search mode leaves the first row at zero, so that matches may start anywhere; global mode
+// increments it with each char.
+final class ApproximateMatcher {
+
+    private final CharSequence pattern;
+    private final boolean reversed;
+    private final boolean ignoreCase;
+    private final int blocks;
+    // The bit of the last row of the pattern in the last block
+    private final long lastBit;
+    // Rows of the pattern each char matches, by block, the shared noMasks for chars matching none
+    private final long[][] asciiMasks = new long[128][];
+    private final Map<Character, long[]> otherMasks = new HashMap<>();
+    private final long[] noMasks;
+    // Rows where the value goes up and down from the row above, by block
+    private final long[] positive;
+    private final long[] negative;
+
+    private ApproximateMatcher(final @NotNull CharSequence pattern, final boolean reversed, final boolean ignoreCase) {
+        this.pattern = pattern;
+        this.reversed = reversed;
+        this.ignoreCase = ignoreCase;
+        final int length = pattern.length();
+        this.blocks = (length + 63) >>> 6;
+        this.lastBit = 1L << (length - 1 & 63);
+        this.noMasks = new long[blocks];
+        // A single pass over the pattern sets the row of each char in the masks of the chars it matches: itself and, ignoring the case, the
+        // ASCII chars among its case variants. Non-ASCII text chars ignoring the case are left to masks, as a pattern char does not tell them.
+        for (int i = 0; i < length; i++) {
+            final char ch = pattern.charAt(reversed ? length - 1 - i : i);
+            setRow(ch, i);
+            if (ignoreCase) {
+                final char lower = Character.toLowerCase(ch);
+                final char upper = Character.toUpperCase(ch);
+                setVariantRow(ch, lower, i);
+                setVariantRow(ch, upper, i);
+                setVariantRow(ch, Character.toUpperCase(lower), i);
+                setVariantRow(ch, Character.toLowerCase(upper), i);
+            }
+        }
+        for (char ch = 0; ch < 128; ch++) {
+            if (asciiMasks[ch] == null) {
+                asciiMasks[ch] = noMasks;
+            }
+        }
+        this.positive = new long[blocks];
+        this.negative = new long[blocks];
+        Arrays.fill(positive, -1L);
+    }
+
+    // Returns the start index of the approximate occurrence of the pattern, with at most maxEdits insertions, deletions and substitutions,
+    // which ends first in the text, or -1. Among the occurrences ending there, the one with the fewest edits and then the longest one wins.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull CharSequence seq, final @NotNull CharSequence pattern, final int maxEdits,
+                                                                final boolean ignoreCase) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("Max edits must be non-negative, but was " + maxEdits);
+        }
+        final int patternLength = pattern.length();
+        if (patternLength <= maxEdits) {
+            // Deleting the whole pattern matches the empty string at the start
+            return 0;
+        }
+        final ApproximateMatcher forward = new ApproximateMatcher(pattern, false, ignoreCase);
+        final int endIndex = forward.blocks == 1 ? forward.searchSingleBlock(seq, maxEdits) : forward.search(seq, maxEdits);
+        if (endIndex < 0) {
+            return -1;
+        }
+        // The start is found by aligning the whole reversed pattern with the text read backward from the end of the match, which can span
+        // at most patternLength + maxEdits chars
+        final ApproximateMatcher backward = new ApproximateMatcher(pattern, true, ignoreCase);
+        final int maxSpan = Math.min(endIndex, patternLength + maxEdits);
+        int score = patternLength;
+        int bestScore = score;
+        int startIndex = endIndex;
+        for (int span = 1; span <= maxSpan; span++) {
+            score += backward.advance(seq.charAt(endIndex - span), true);
+            if (score <= bestScore) {
+                bestScore = score;
+                startIndex = endIndex - span;
+            }
+        }
+        return startIndex;
+    }
+
+    // Returns the Levenshtein distance between the two char sequences.
+    static @Range(from = 0, to = Integer.MAX_VALUE) int distance(final @NotNull CharSequence first, final @NotNull CharSequence second,
+                                                                final boolean ignoreCase) {
+        // The shorter sequence is the pattern, so that it takes as few blocks as possible
+        final CharSequence pattern = first.length() <= second.length() ? first : second;
+        final CharSequence text = pattern == first ? second : first;
+        if (pattern.length() == 0) {
+            return text.length();
+        }
+        final ApproximateMatcher matcher = new ApproximateMatcher(pattern, false, ignoreCase);
+        final int length = text.length();
+        int score = pattern.length();
+        for (int i = 0; i < length; i++) {
+            score += matcher.advance(text.charAt(i), true);
+        }
+        return score;
+    }
+
+    // Returns the end index of the first match in search mode, or -1.
+    private int search(final @NotNull CharSequence seq, final int maxEdits) {
+        final int length = seq.length();
+        int score = pattern.length();
+        for (int i = 0; i < length; i++) {
+            score += advance(seq.charAt(i), false);
+            if (score <= maxEdits) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // The same as search for patterns of up to 64 chars, with the column kept in locals.
+    private int searchSingleBlock(final @NotNull CharSequence seq, final int maxEdits) {
+        final int length = seq.length();
+        int score = pattern.length();
+        long pv = -1L;
+        long mv = 0L;
+        for (int i = 0; i < length; i++) {
+            final char ch = seq.charAt(i);
+            final long eq = ch < 128 ? asciiMasks[ch][0] : masks(ch)[0];
+            final long xv = eq | mv;
+            final long xh = ((eq & pv) + pv ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & lastBit) != 0) {
+                score++;
+            } else if ((mh & lastBit) != 0) {
+                score--;
+            }
+            ph <<= 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (score <= maxEdits) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // Advances the column over the given text char and returns the change in the value of the last row.
+    private int advance(final char ch, final boolean global) {
+        final long[] masks = masks(ch);
+        int carry = global ? 1 : 0;
+        for (int block = 0; block < blocks; block++) {
+            final long pv = positive[block];
+            final long mv = negative[block];
+            long eq = masks[block];
+            final long xv = eq | mv;
+            if (carry < 0) {
+                eq |= 1L;
+            }
+            final long xh = ((eq & pv) + pv ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            final long high = block == blocks - 1 ? lastBit : Long.MIN_VALUE;
+            final int out = (ph & high) != 0 ? 1 : (mh & high) != 0 ? -1 : 0;
+            ph <<= 1;
+            mh <<= 1;
+            if (carry < 0) {
+                mh |= 1L;
+            } else if (carry > 0) {
+                ph |= 1L;
+            }
+            positive[block] = mh | ~(xv | ph);
+            negative[block] = ph & xv;
+            carry = out;
+        }
+        return carry;
+    }
+
+    private @NotNull long[] masks(final char ch) {
+        if (ch < 128) {
+            return asciiMasks[ch];
+        }
+        if (!ignoreCase) {
+            final long[] masks = otherMasks.get(ch);
+            return masks != null ? masks : noMasks;
+        }
+        // Matches ignoring the case are computed on first use, as any char may match a pattern char
+        return otherMasks.computeIfAbsent(ch, this::computeMasks);
+    }
+
+    private void setRow(final char ch, final int row) {
+        final long[] masks;
+        if (ch < 128) {
+            if (asciiMasks[ch] == null) {
+                asciiMasks[ch] = new long[blocks];
+            }
+            masks = asciiMasks[ch];
+        } else if (!ignoreCase) {
+            masks = otherMasks.computeIfAbsent(ch, key -> new long[blocks]);
+        } else {
+            return;
+        }
+        masks[row >>> 6] |= 1L << row;
+    }
+
+    private void setVariantRow(final char ch, final char variant, final int row) {
+        if (variant != ch && variant < 128 && CharUtils.equals(ch, variant, true)) {
+            setRow(variant, row);
+        }
+    }
+
+    private @NotNull long[] computeMasks(final char ch) {
+        final int length = pattern.length();
+        final long[] masks = new long[blocks];
+        for (int i = 0; i < length; i++) {
+            if (CharUtils.equals(pattern.charAt(reversed ? length - 1 - i : i), ch, ignoreCase)) {
+                masks[i >>> 6] |= 1L << i;
+            }
+        }
+        return masks;
+    }
+}
@@ -0,0 +1,304 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * An immutable {@link CharSequence} storing one byte per char, for text made only of ASCII / Latin-1 chars (U+0000 to
+ * U+00FF), such as identifiers, host names or enum-like tokens held in large numbers.
+ * <p>
+ * Compared to a {@link String} this halves the storage of the chars on JDK 8 (which has no compact strings), and still saves the separate
+ * backing array header on later JDKs. The hash code is cached and is the same as the one of the {@link String} with the same content, so both
+ * can be looked up with the same hash, but like {@link String} and {@link StringBuilder}, an {@code AsciiString} is only {@link #equals} to
+ * another {@code AsciiString}. Use {@link #contentEquals(CharSequence)} to compare against any other {@link CharSequence}.
+ * <p>
+ * {@link StringUtils} recognizes this type and runs the case-sensitive {@code indexOf}, {@code lastIndexOf}, {@code startsWith},
+ * {@code endsWith} and {@code contentEquals} directly on the backing bytes.
+ */
+public final class AsciiString implements CharSequence, Comparable<AsciiString>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final AsciiString EMPTY = new AsciiString(new byte[0]);
+
+    private final byte[] value;
+    // Lazily computed, 0 until then like String.hash
+    private transient int hash;
+
+    private AsciiString(final @NotNull byte[] value) {
+        this.value = value;
+    }
+
+    // Returns an AsciiString with the same chars as the given char sequence.
+    // Throws IllegalArgumentException if it contains a char above U+00FF.
+    public static @NotNull AsciiString of(final @NotNull CharSequence seq) {
+        if (seq instanceof AsciiString) {
+            return (AsciiString) seq;
+        }
+        final AsciiString result = encode(seq);
+        if (result == null) {
+            throw new IllegalArgumentException("Char sequence contains chars outside of the Latin-1 range: " + seq);
+        }
+        return result;
+    }
+
+    // Returns an AsciiString with the same chars as the given char sequence, or null if it contains a char above U+00FF.
+    public static @Nullable AsciiString ofOrNull(final @NotNull CharSequence seq) {
+        return seq instanceof AsciiString ? (AsciiString) seq : encode(seq);
+    }
+
+    // Returns an AsciiString decoding the given bytes as Latin-1. The array is copied.
+    public static @NotNull AsciiString of(final @NotNull byte[] bytes) {
+        return of(bytes, 0, bytes.length);
+    }
+
+    // Returns an AsciiString decoding the bytes in [startIndex, endIndex) as Latin-1. The array is copied.
+    public static @NotNull AsciiString of(final @NotNull byte[] bytes, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                          final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        checkBounds(startIndex, endIndex, bytes.length);
+        return startIndex == endIndex ? EMPTY : new AsciiString(Arrays.copyOfRange(bytes, startIndex, endIndex));
+    }
+
+    // Returns the most compact representation of the given char sequence: an AsciiString if all its chars fit in one byte, a String otherwise.
+    public static @NotNull CharSequence compact(final @NotNull CharSequence seq) {
+        final AsciiString result = ofOrNull(seq);
+        return result != null ? result : seq.toString();
+    }
+
+    // Returns true if every char of the given char sequence can be stored in an AsciiString.
+    public static boolean canEncode(final @NotNull CharSequence seq) {
+        if (seq instanceof AsciiString) {
+            return true;
+        }
+        final int length = seq.length();
+        for (int i = 0; i < length; i++) {
+            if (seq.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static @Nullable AsciiString encode(final @NotNull CharSequence seq) {
+        final int length = seq.length();
+        if (length == 0) {
+            return EMPTY;
+        }
+        final byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            final char ch = seq.charAt(i);
+            if (ch > 0xFF) {
+                return null;
+            }
+            value[i] = (byte) ch;
+        }
+        return new AsciiString(value);
+    }
+
+    @Override
+    public int length() {
+        return value.length;
+    }
+
+    public boolean isEmpty() {
+        return value.length == 0;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (value[index] & 0xFF);
+    }
+
+    // Returns the byte at the given index, which is the Latin-1 encoding of charAt(index).
+    public byte byteAt(final int index) {
+        return value[index];
+    }
+
+    @Override
+    public @NotNull AsciiString subSequence(final int startIndex, final int endIndex) {
+        checkBounds(startIndex, endIndex, value.length);
+        if (startIndex == 0 && endIndex == value.length) {
+            return this;
+        }
+        return startIndex == endIndex ? EMPTY : new AsciiString(Arrays.copyOfRange(value, startIndex, endIndex));
+    }
+
+    // Returns a copy of the Latin-1 bytes of this string.
+    public @NotNull byte[] toByteArray() {
+        return value.clone();
+    }
+
+    // Copies the Latin-1 bytes in [startIndex, endIndex) of this string into the destination array, starting at destinationOffset.
+    public void getBytes(final int startIndex, final int endIndex, final @NotNull byte[] destination, final int destinationOffset) {
+        checkBounds(startIndex, endIndex, value.length);
+        System.arraycopy(value, startIndex, destination, destinationOffset, endIndex - startIndex);
+    }
+
+    // Returns the index of the first occurrence of the given char at or after startIndex, or -1. Same bounds handling as String.indexOf.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final char ch, final int startIndex) {
+        if (ch > 0xFF) {
+            return -1;
+        }
+        final byte b = (byte) ch;
+        final byte[] value = this.value;
+        for (int i = Math.max(startIndex, 0); i < value.length; i++) {
+            if (value[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the index of the last occurrence of the given char at or before startIndex, or -1. Same bounds handling as String.lastIndexOf.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int lastIndexOf(final char ch, final int startIndex) {
+        if (ch > 0xFF) {
+            return -1;
+        }
+        final byte b = (byte) ch;
+        final byte[] value = this.value;
+        for (int i = Math.min(startIndex, value.length - 1); i >= 0; i--) {
+            if (value[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the index of the first occurrence of the given char sequence at or after startIndex, or -1. Same bounds handling as String.indexOf.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull CharSequence str, final int startIndex) {
+        final byte[] value = this.value;
+        final int start = Math.max(startIndex, 0);
+        final int length = str.length();
+        if (start >= value.length) {
+            return length == 0 ? value.length : -1;
+        }
+        if (length == 0) {
+            return start;
+        }
+        final int last = value.length - length;
+        if (str instanceof AsciiString) {
+            final byte[] bytes = ((AsciiString) str).value;
+            final byte first = bytes[0];
+            for (int i = start; i <= last; i++) {
+                if (value[i] == first && matches(i + 1, bytes, 1, length - 1)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        // Other char sequences are compared against the bytes in place; a char above U+00FF never matches a byte
+        final char first = str.charAt(0);
+        if (first > 0xFF) {
+            return -1;
+        }
+        for (int i = start; i <= last; i++) {
+            if ((value[i] & 0xFF) == first && matches(i + 1, str, 1, length - 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returns true if the given prefix is found at startIndex in this string.
+    public boolean startsWith(final @NotNull CharSequence prefix, final int startIndex) {
+        final int length = prefix.length();
+        if (startIndex < 0 || startIndex > value.length - length) {
+            return false;
+        }
+        if (prefix instanceof AsciiString) {
+            return matches(startIndex, ((AsciiString) prefix).value, 0, length);
+        }
+        return matches(startIndex, prefix, 0, length);
+    }
+
+    // Returns true if this string ends with the given suffix.
+    public boolean endsWith(final @NotNull CharSequence suffix) {
+        return startsWith(suffix, value.length - suffix.length());
+    }
+
+    // Returns true if the given char sequence has the same chars as this string, whatever its type.
+    public boolean contentEquals(final @Nullable CharSequence seq) {
+        if (seq == this) {
+            return true;
+        }
+        if (seq == null || seq.length() != value.length) {
+            return false;
+        }
+        if (seq instanceof AsciiString) {
+            final AsciiString other = (AsciiString) seq;
+            return (hash == 0 || other.hash == 0 || hash == other.hash) && Arrays.equals(value, other.value);
+        }
+        return startsWith(seq, 0);
+    }
+
+    private boolean matches(final int offset, final @NotNull byte[] bytes, final int bytesOffset, final int length) {
+        final byte[] value = this.value;
+        for (int i = 0; i < length; i++) {
+            if (value[offset + i] != bytes[bytesOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matches(final int offset, final @NotNull CharSequence seq, final int seqOffset, final int length) {
+        final byte[] value = this.value;
+        for (int i = 0; i < length; i++) {
+            if ((value[offset + i] & 0xFF) != seq.charAt(seqOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Contract(value = "null -> false", pure = true)
+    @Override
+    public boolean equals(final @Nullable Object obj) {
+        return obj instanceof AsciiString && contentEquals((AsciiString) obj);
+    }
+
+    // Same value as String.hashCode for the same chars.
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (final byte b : value) {
+                h = 31 * h + (b & 0xFF);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    // Compares lexicographically by char value, as String.compareTo does.
+    @Override
+    public int compareTo(final @NotNull AsciiString other) {
+        final byte[] value = this.value;
+        final byte[] otherValue = other.value;
+        final int length = Math.min(value.length, otherValue.length);
+        for (int i = 0; i < length; i++) {
+            if (value[i] != otherValue[i]) {
+                return (value[i] & 0xFF) - (otherValue[i] & 0xFF);
+            }
+        }
+        return value.length - otherValue.length;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return new String(value, ISO_8859_1);
+    }
+
+    private static void checkBounds(final int startIndex, final int endIndex, final int length) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > length) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + length);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+
+// Case-insensitive CharSequenceEquivalence with the semantics of CharUtils.equals(first, second, true).
+// Every char is hashed through its fold CharUtils.fold(ch), which is the same for any two chars CharUtils.equals considers equal. ASCII chars are folded and compared with a single range check, the Character case tables are only consulted above 0x7F.
+final class CaseInsensitiveEquivalence implements CharSequenceEquivalence {
+
+    CaseInsensitiveEquivalence() {
+    }
+
+    @Override
+    public int hash(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        int h = 0;
+        for (int i = startIndex; i < endIndex; i++) {
+            h = 31 * h + CharUtils.fold(seq.charAt(i));
+        }
+        return h;
+    }
+
+    @Override
+    public boolean regionEquals(final @NotNull CharSequence first, final int firstOffset, final @NotNull CharSequence second, final int secondOffset,
+                                final int length) {
+        for (int i = 0; i < length; i++) {
+            final char firstChar = first.charAt(firstOffset + i);
+            final char secondChar = second.charAt(secondOffset + i);
+            if (firstChar != secondChar) {
+                if ((firstChar | secondChar) < 0x80) {
+                    if (CharUtils.asciiFold(firstChar) != CharUtils.asciiFold(secondChar)) {
+                        return false;
+                    }
+                } else if (!CharUtils.equals(firstChar, secondChar, true)) {
+                    // Non-ASCII chars may still fold to ASCII ones, e.g. the Kelvin sign and 'k'
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "IGNORE_CASE";
+    }
+}
@@ -0,0 +1,81 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.CharBuffer;
+
+// Bulk access to the chars of a CharSequence for the scanning loops of StringUtils and the scanners.
+// A loop calling CharSequence.charAt on receivers of several types turns the call site megamorphic, so the JIT neither inlines the call nor
+// unrolls the loop. Loops instead copy the chars a chunk at a time into a char[] with getChars, which String, StringBuilder and StringBuffer
+// implement as an array copy and a CharBuffer as a bulk get, and then run over the array. The type of the receiver is tested once per chunk
+// rather than once per char; other char sequences are copied with charAt.
+final class CharChunks {
+
+    // The size of the chunk buffers, small enough for loops which may stop at the first chars not to copy much more than they read
+    static final int CHUNK_SIZE = 256;
+
+    // One slot per thread, empty while its chunk buffer is in use
+    private static final ThreadLocal<char[][]> CHUNKS = ThreadLocal.withInitial(() -> new char[1][]);
+
+    @Contract(value = " -> fail", pure = true)
+    private CharChunks() {
+        throw new AssertionError();
+    }
+
+    // Returns the chunk buffer of CHUNK_SIZE chars of the current thread, or a new buffer if it is in use. Loops which call back into user code
+    // may nest, and a nested loop gets its own buffer.
+    static @NotNull char[] acquire() {
+        final char[][] slot = CHUNKS.get();
+        final char[] chunk = slot[0];
+        if (chunk == null) {
+            return new char[CHUNK_SIZE];
+        }
+        slot[0] = null;
+        return chunk;
+    }
+
+    // Gives back a chunk buffer acquired on the current thread, which must not be used afterwards.
+    static void release(final @NotNull char[] chunk) {
+        CHUNKS.get()[0] = chunk;
+    }
+
+    // Copies the chars in [startIndex, endIndex) of the given char sequence to the array, starting at dstIndex.
+    static void getChars(final @NotNull CharSequence seq, final int startIndex, final int endIndex, final @NotNull char[] dst, final int dstIndex) {
+        if (seq instanceof String) {
+            ((String) seq).getChars(startIndex, endIndex, dst, dstIndex);
+        } else if (seq instanceof StringBuilder) {
+            ((StringBuilder) seq).getChars(startIndex, endIndex, dst, dstIndex);
+        } else if (seq instanceof StringBuffer) {
+            ((StringBuffer) seq).getChars(startIndex, endIndex, dst, dstIndex);
+        } else if (seq instanceof CharBuffer) {
+            final CharBuffer buffer = (CharBuffer) seq;
+            if (startIndex < 0 || startIndex > endIndex || endIndex > buffer.remaining()) {
+                throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + buffer.remaining());
+            }
+            if (buffer.hasArray()) {
+                System.arraycopy(buffer.array(), buffer.arrayOffset() + buffer.position() + startIndex, dst, dstIndex, endIndex - startIndex);
+            } else {
+                // A duplicate, so that the position of the buffer itself does not move
+                final CharBuffer duplicate = buffer.duplicate();
+                duplicate.position(duplicate.position() + startIndex);
+                duplicate.get(dst, dstIndex, endIndex - startIndex);
+            }
+        } else {
+            for (int i = startIndex; i < endIndex; i++) {
+                dst[dstIndex + i - startIndex] = seq.charAt(i);
+            }
+        }
+    }
+
+    // Appends all chars of the given char sequence to the builder, copying the array of an array-backed CharBuffer, which
+    // StringBuilder.append(CharSequence) reads with charAt.
+    static void appendTo(final @NotNull StringBuilder builder, final @NotNull CharSequence seq) {
+        if (seq instanceof CharBuffer && ((CharBuffer) seq).hasArray()) {
+            final CharBuffer buffer = (CharBuffer) seq;
+            builder.append(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            builder.append(seq);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+// Entry point for the bulk scanning loops used by StringUtils.
+// This is the Java 8 baseline. The multi-release JAR ships a replacement under META-INF/versions/17 that uses jdk.incubator.vector when the
+// module is resolved at runtime, so any signature change here has to be mirrored in src/main/java17.
+final class CharScanner {
+
+    @Contract(value = " -> fail", pure = true)
+    private CharScanner() {
+        throw new AssertionError();
+    }
+
+    // Returns the index of the first char in [startIndex, endIndex) equal to any of the given chars, or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull CharSequence seq, final @NotNull char[] chars, final int startIndex,
+                                                                    final int endIndex, final boolean ignoreCase) {
+        return ScalarCharScanner.indexOfAny(seq, chars, startIndex, endIndex, ignoreCase);
+    }
+
+    // Returns the index of the first '\n' or '\r' in [startIndex, endIndex), or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfLineSeparator(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        return ScalarCharScanner.indexOfLineSeparator(seq, startIndex, endIndex);
+    }
+
+    // Returns the index of the first char in [startIndex, endIndex) which is not whitespace according to Character.isWhitespace, or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfNonWhitespace(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        return ScalarCharScanner.indexOfNonWhitespace(seq, startIndex, endIndex);
+    }
+
+    // Returns the number of occurrences of the given char in [startIndex, endIndex).
+    static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final char ch, final int startIndex, final int endIndex) {
+        return ScalarCharScanner.count(seq, ch, startIndex, endIndex);
+    }
+}
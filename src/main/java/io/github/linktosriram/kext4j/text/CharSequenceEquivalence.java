@@ -0,0 +1,44 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A hashing and equality strategy for the content of {@link CharSequence}s and of regions of them, for hash tables whose keys should not be
+ * compared with {@link Object#equals} (which most {@link CharSequence} implementations do not define by content).
+ * <p>
+ * Two regions which are equal according to {@link #regionEquals} always have the same {@link #hash}.
+ */
+public interface CharSequenceEquivalence {
+
+    // The implementations hold no static state, so that initializing one of them, which initializes this interface for its default methods,
+    // never reads a constant below before it is set.
+
+    // Compares chars exactly. The hash is the one of String.hashCode.
+    CharSequenceEquivalence EXACT = new ExactEquivalence();
+
+    // Compares chars ignoring the case, with the semantics of CharUtils.equals(first, second, true). ASCII chars are folded without calling
+    // into the Character case tables.
+    CharSequenceEquivalence IGNORE_CASE = new CaseInsensitiveEquivalence();
+
+    // Returns the hash of the chars in [startIndex, endIndex) of the given char sequence.
+    int hash(@NotNull CharSequence seq, int startIndex, int endIndex);
+
+    // Returns true if the length chars starting at firstOffset in first are equal to the ones starting at secondOffset in second.
+    // Callers are responsible for the bounds.
+    boolean regionEquals(@NotNull CharSequence first, int firstOffset, @NotNull CharSequence second, int secondOffset, int length);
+
+    default int hash(final @NotNull CharSequence seq) {
+        return hash(seq, 0, seq.length());
+    }
+
+    default boolean equals(final @Nullable CharSequence first, final @Nullable CharSequence second) {
+        if (first == second) {
+            return true;
+        }
+        if (first == null || second == null || first.length() != second.length()) {
+            return false;
+        }
+        return regionEquals(first, 0, second, 0, first.length());
+    }
+}
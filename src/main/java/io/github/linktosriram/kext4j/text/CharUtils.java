@@ -1,9 +1,32 @@
 package io.github.linktosriram.kext4j.text;
 
 import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
 
 public final class CharUtils {
 
+    // The lowest bit of each 16 bit lane of a long, multiplied by a char to repeat it in every lane
+    private static final long LANES = 0x0001000100010001L;
+    // The bits of each 16 bit lane which are clear in an ASCII char
+    private static final long NON_ASCII_BITS = 0xFF80FF80FF80FF80L;
+
+    // For each Latin-1 char, the smallest Latin-1 char equal to it ignoring the case, so that two Latin-1 chars are equal ignoring the case
+    // exactly when their entries are. Computed from the Unicode rule below rather than hardcoded, to stay in sync with the JDK tables.
+    private static final char[] LATIN1_FOLD = new char[0x100];
+
+    static {
+        for (char ch = 0; ch < LATIN1_FOLD.length; ch++) {
+            char fold = ch;
+            for (char other = 0; other < ch; other++) {
+                if (equalsIgnoreCaseUnicode(ch, other)) {
+                    fold = LATIN1_FOLD[other];
+                    break;
+                }
+            }
+            LATIN1_FOLD[ch] = fold;
+        }
+    }
+
     @Contract(value = " -> fail", pure = true)
     private CharUtils() {
         throw new AssertionError();
@@ -20,6 +43,118 @@ public final class CharUtils {
         if (!ignoreCase) {
             return false;
         }
+        return equalsIgnoreCase(first, second);
+    }
+
+    // Returns true if the specified range in first char array is equal to the specified range in second char array ignoring the case, with
+    // the same semantics as equals(char, char, true) for each char.
+    public static boolean regionMatchesIgnoreCase(final @NotNull char[] first, final int firstOffset, final @NotNull char[] second, final int secondOffset,
+                                                  final int length) {
+        if (firstOffset < 0 || secondOffset < 0 || firstOffset > first.length - length || secondOffset > second.length - length) {
+            return false;
+        }
+        // Four chars at a time, packed into longs: equal words and ASCII words equal once folded to lowercase match without a per char check
+        int i = 0;
+        for (; i <= length - 4; i += 4) {
+            final long firstWord = pack(first, firstOffset + i);
+            final long secondWord = pack(second, secondOffset + i);
+            if (firstWord != secondWord && !asciiWordsEqualIgnoreCase(firstWord, secondWord)) {
+                for (int k = i; k < i + 4; k++) {
+                    final char firstChar = first[firstOffset + k];
+                    final char secondChar = second[secondOffset + k];
+                    if (firstChar != secondChar && !equalsIgnoreCase(firstChar, secondChar)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        for (; i < length; i++) {
+            final char firstChar = first[firstOffset + i];
+            final char secondChar = second[secondOffset + i];
+            if (firstChar != secondChar && !equalsIgnoreCase(firstChar, secondChar)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns true if the specified range in first string is equal to the specified range in second string ignoring the case, with the same
+    // semantics as equals(char, char, true) for each char.
+    public static boolean regionMatchesIgnoreCase(final @NotNull String first, final int firstOffset, final @NotNull String second, final int secondOffset,
+                                                  final int length) {
+        if (firstOffset < 0 || secondOffset < 0 || firstOffset > first.length() - length || secondOffset > second.length() - length) {
+            return false;
+        }
+        int i = 0;
+        for (; i <= length - 4; i += 4) {
+            final long firstWord = pack(first, firstOffset + i);
+            final long secondWord = pack(second, secondOffset + i);
+            if (firstWord != secondWord && !asciiWordsEqualIgnoreCase(firstWord, secondWord)) {
+                for (int k = i; k < i + 4; k++) {
+                    final char firstChar = first.charAt(firstOffset + k);
+                    final char secondChar = second.charAt(secondOffset + k);
+                    if (firstChar != secondChar && !equalsIgnoreCase(firstChar, secondChar)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        for (; i < length; i++) {
+            final char firstChar = first.charAt(firstOffset + i);
+            final char secondChar = second.charAt(secondOffset + i);
+            if (firstChar != secondChar && !equalsIgnoreCase(firstChar, secondChar)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns Character.toLowerCase(Character.toUpperCase(ch)), which is the same for any two chars equals(first, second, true) considers
+    // equal. ASCII chars are folded without the Character case tables.
+    static char fold(final char ch) {
+        return ch < 0x80 ? asciiFold(ch) : Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    static char asciiFold(final char ch) {
+        return ch >= 'A' && ch <= 'Z' ? (char) (ch | 0x20) : ch;
+    }
+
+    // Packs the four chars of the array starting at index into a long, the first in the lowest 16 bits.
+    static long pack(final @NotNull char[] chars, final int index) {
+        return chars[index] | (long) chars[index + 1] << 16 | (long) chars[index + 2] << 32 | (long) chars[index + 3] << 48;
+    }
+
+    private static long pack(final @NotNull String str, final int index) {
+        return str.charAt(index) | (long) str.charAt(index + 1) << 16 | (long) str.charAt(index + 2) << 32 | (long) str.charAt(index + 3) << 48;
+    }
+
+    // Returns true if both packed words hold only ASCII chars and are equal once their uppercase letters are folded to lowercase.
+    private static boolean asciiWordsEqualIgnoreCase(final long first, final long second) {
+        return ((first | second) & NON_ASCII_BITS) == 0 && asciiLowerCase(first) == asciiLowerCase(second);
+    }
+
+    // Sets the 0x20 bit of the uppercase letters of a word of four ASCII chars. Adding 0x80 - 'A' to a lane sets its 0x80 bit from 'A' up, and
+    // adding 0x80 - 'Z' - 1 from just past 'Z' up; lanes stay below 0x100, so nothing carries into the next lane.
+    private static long asciiLowerCase(final long word) {
+        final long upperCase = word + (0x80 - 'A') * LANES & ~(word + (0x80 - 'Z' - 1) * LANES) & 0x80 * LANES;
+        return word | upperCase >>> 2;
+    }
+
+    // Slow path of equals(first, second, true) for chars known to be different.
+    private static boolean equalsIgnoreCase(final char first, final char second) {
+        final int both = first | second;
+        if (both < 0x80) {
+            // Two different ASCII chars can only be equal if they are the same letter in both cases, which differ by the 0x20 bit
+            final int lower = first | 0x20;
+            return (first ^ second) == 0x20 && lower >= 'a' && lower <= 'z';
+        }
+        if (both <= 0xFF) {
+            return LATIN1_FOLD[first] == LATIN1_FOLD[second];
+        }
+        return equalsIgnoreCaseUnicode(first, second);
+    }
+
+    private static boolean equalsIgnoreCaseUnicode(final char first, final char second) {
         if (Character.toUpperCase(first) == Character.toUpperCase(second)) {
             return true;
         }
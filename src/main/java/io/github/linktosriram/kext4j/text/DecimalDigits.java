@@ -0,0 +1,104 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+/**
+ * Writes the decimal representation of {@code long} values, and so of {@code int} values, straight into a {@code char[]}, without the
+ * temporary {@link String} of {@link Long#toString(long)}.
+ * <p>
+ * Digits are produced two at a time from the remainder by one hundred, looked up in tables of the tens and ones digits of 0 to 99, from the
+ * end of the representation backward; {@link #stringSize(long)} gives its length up front so that the caller can reserve room for it. The
+ * chars written are the same as those of {@link Long#toString(long)}.
+ */
+public final class DecimalDigits {
+
+    // The maximum length of the representation of a long, that of Long.MIN_VALUE
+    public static final int MAX_LONG_LENGTH = 20;
+
+    private static final char[] TENS = new char[100];
+    private static final char[] ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char) ('0' + i / 10);
+            ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    @Contract(value = " -> fail", pure = true)
+    private DecimalDigits() {
+        throw new AssertionError();
+    }
+
+    // Returns the number of chars of the decimal representation of the given value, including the minus sign.
+    @Contract(pure = true)
+    public static @Range(from = 1, to = 11) int stringSize(int value) {
+        // Negative values cover Integer.MIN_VALUE, which has no positive counterpart
+        int sign = 1;
+        if (value >= 0) {
+            sign = 0;
+            value = -value;
+        }
+        int bound = -10;
+        for (int size = 1; size < 10; size++) {
+            if (value > bound) {
+                return size + sign;
+            }
+            bound *= 10;
+        }
+        return 10 + sign;
+    }
+
+    // Returns the number of chars of the decimal representation of the given value, including the minus sign.
+    @Contract(pure = true)
+    public static @Range(from = 1, to = MAX_LONG_LENGTH) int stringSize(long value) {
+        int sign = 1;
+        if (value >= 0) {
+            sign = 0;
+            value = -value;
+        }
+        long bound = -10;
+        for (int size = 1; size < 19; size++) {
+            if (value > bound) {
+                return size + sign;
+            }
+            bound *= 10;
+        }
+        return 19 + sign;
+    }
+
+    // Writes the decimal representation of the given value into the array, ending just before endIndex, and returns the index of its first
+    // char. The array must have stringSize(value) chars of room before endIndex.
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int getChars(final long value, final int endIndex, final @NotNull char[] dst) {
+        int index = endIndex;
+        long remaining = value < 0 ? value : -value;
+        // Long division is slower, so the loop switches to ints once the rest of the value fits in one
+        while (remaining < Integer.MIN_VALUE) {
+            final long quotient = remaining / 100;
+            final int pair = (int) (quotient * 100 - remaining);
+            remaining = quotient;
+            dst[--index] = ONES[pair];
+            dst[--index] = TENS[pair];
+        }
+        int rest = (int) remaining;
+        while (rest <= -100) {
+            final int quotient = rest / 100;
+            final int pair = quotient * 100 - rest;
+            rest = quotient;
+            dst[--index] = ONES[pair];
+            dst[--index] = TENS[pair];
+        }
+        if (rest <= -10) {
+            dst[--index] = ONES[-rest];
+            dst[--index] = TENS[-rest];
+        } else {
+            dst[--index] = (char) ('0' - rest);
+        }
+        if (value < 0) {
+            dst[--index] = '-';
+        }
+        return index;
+    }
+}
@@ -0,0 +1,410 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Finds the next occurrence of any of a fixed set of non-empty delimiters, with all the per-delimiter analysis done once at construction.
+// At a given index, delimiters are tried in the order they were given, as findAnyOf does.
+// Instances are immutable and can be shared between threads.
+abstract class DelimiterMatcher {
+
+    // Returns the index of the first delimiter occurrence at or after startIndex, or -1.
+    abstract @Range(from = -1, to = Integer.MAX_VALUE) int indexIn(@NotNull CharSequence seq, int startIndex);
+
+    // Returns the length of the delimiter found at the given index by indexIn.
+    abstract @Range(from = 1, to = Integer.MAX_VALUE) int matchLength(@NotNull CharSequence seq, int index);
+
+    // Returns the position in the list of delimiters of the delimiter found at the given index by indexIn.
+    abstract @Range(from = 0, to = Integer.MAX_VALUE) int delimiterAt(@NotNull CharSequence seq, int index);
+
+    static @NotNull DelimiterMatcher of(final @NotNull char[] delimiters, final boolean ignoreCase) {
+        if (delimiters.length == 0) {
+            throw new IllegalArgumentException("At least one delimiter is required");
+        }
+        return delimiters.length == 1 ? new SingleChar(delimiters[0], ignoreCase) : new CharSet(delimiters, ignoreCase);
+    }
+
+    static @NotNull DelimiterMatcher of(final @NotNull List<String> delimiters, final boolean ignoreCase) {
+        if (delimiters.isEmpty()) {
+            throw new IllegalArgumentException("At least one delimiter is required");
+        }
+        boolean singleChars = true;
+        for (final String delimiter : delimiters) {
+            if (delimiter.isEmpty()) {
+                throw new IllegalArgumentException("Delimiters must not be empty");
+            }
+            singleChars &= delimiter.length() == 1;
+        }
+        if (singleChars) {
+            final char[] chars = new char[delimiters.size()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = delimiters.get(i).charAt(0);
+            }
+            return of(chars, ignoreCase);
+        }
+        return delimiters.size() == 1 ? new SingleString(delimiters.get(0), ignoreCase) : new MultiString(delimiters, ignoreCase);
+    }
+
+    private static final class SingleChar extends DelimiterMatcher {
+
+        private final char delimiter;
+        private final char[] delimiters;
+        private final boolean ignoreCase;
+
+        SingleChar(final char delimiter, final boolean ignoreCase) {
+            this.delimiter = delimiter;
+            this.delimiters = new char[]{delimiter};
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        int indexIn(final @NotNull CharSequence seq, final int startIndex) {
+            if (ignoreCase) {
+                return CharScanner.indexOfAny(seq, delimiters, Math.max(startIndex, 0), seq.length(), true);
+            }
+            if (seq instanceof String) {
+                return ((String) seq).indexOf(delimiter, startIndex);
+            }
+            if (seq instanceof AsciiString) {
+                return ((AsciiString) seq).indexOf(delimiter, startIndex);
+            }
+            final int length = seq.length();
+            for (int i = startIndex; i < length; i++) {
+                if (seq.charAt(i) == delimiter) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        int matchLength(final @NotNull CharSequence seq, final int index) {
+            return 1;
+        }
+
+        @Override
+        int delimiterAt(final @NotNull CharSequence seq, final int index) {
+            return 0;
+        }
+    }
+
+    // Delimiter chars are looked up in a 128 bit ASCII bitmap, anything else in a sorted array.
+    private static final class CharSet extends DelimiterMatcher {
+
+        private final long low;
+        private final long high;
+        private final char[] delimiters;
+        private final @Nullable char[] nonAscii;
+        private final boolean ignoreCase;
+
+        CharSet(final @NotNull char[] delimiters, final boolean ignoreCase) {
+            this.delimiters = delimiters.clone();
+            this.ignoreCase = ignoreCase;
+            long low = 0;
+            long high = 0;
+            for (char ch = 0; ch < 128; ch++) {
+                for (final char delimiter : delimiters) {
+                    if (CharUtils.equals(ch, delimiter, ignoreCase)) {
+                        if (ch < 64) {
+                            low |= 1L << ch;
+                        } else {
+                            high |= 1L << (ch - 64);
+                        }
+                        break;
+                    }
+                }
+            }
+            this.low = low;
+            this.high = high;
+            final StringBuilder nonAscii = new StringBuilder();
+            for (final char delimiter : delimiters) {
+                if (delimiter >= 128) {
+                    nonAscii.append(delimiter);
+                }
+            }
+            final char[] sorted = nonAscii.toString().toCharArray();
+            Arrays.sort(sorted);
+            this.nonAscii = sorted.length == 0 && !ignoreCase ? null : sorted;
+        }
+
+        @Override
+        int indexIn(final @NotNull CharSequence seq, final int startIndex) {
+            final int length = seq.length();
+            for (int i = Math.max(startIndex, 0); i < length; i++) {
+                final char ch = seq.charAt(i);
+                if (ch < 64) {
+                    if ((low >>> ch & 1L) != 0) {
+                        return i;
+                    }
+                } else if (ch < 128) {
+                    if ((high >>> (ch - 64) & 1L) != 0) {
+                        return i;
+                    }
+                } else if (nonAscii != null && matchesNonAscii(ch)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean matchesNonAscii(final char ch) {
+            if (!ignoreCase) {
+                return Arrays.binarySearch(nonAscii, ch) >= 0;
+            }
+            // Non-ASCII chars may fold into ASCII delimiters, such as the Kelvin sign and 'k'
+            for (final char delimiter : delimiters) {
+                if (CharUtils.equals(delimiter, ch, true)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int matchLength(final @NotNull CharSequence seq, final int index) {
+            return 1;
+        }
+
+        @Override
+        int delimiterAt(final @NotNull CharSequence seq, final int index) {
+            final char ch = seq.charAt(index);
+            for (int i = 0; i < delimiters.length; i++) {
+                if (CharUtils.equals(delimiters[i], ch, ignoreCase)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("No delimiter at index " + index);
+        }
+    }
+
+    private static final class SingleString extends DelimiterMatcher {
+
+        private final String delimiter;
+        private final boolean ignoreCase;
+
+        SingleString(final @NotNull String delimiter, final boolean ignoreCase) {
+            this.delimiter = delimiter;
+            this.ignoreCase = ignoreCase;
+        }
+
+        @Override
+        int indexIn(final @NotNull CharSequence seq, final int startIndex) {
+            return StringUtils.indexOf(seq, delimiter, Math.max(startIndex, 0), ignoreCase);
+        }
+
+        @Override
+        int matchLength(final @NotNull CharSequence seq, final int index) {
+            return delimiter.length();
+        }
+
+        @Override
+        int delimiterAt(final @NotNull CharSequence seq, final int index) {
+            return 0;
+        }
+    }
+
+    // An Aho-Corasick automaton over all delimiters, so that indexIn reads each char once whatever the number of delimiters. The chars of the
+    // delimiters are numbered into classes, with class 0 for any other char, and the automaton is completed into a table of transitions
+    // indexed by state and class, so that each char costs one lookup. With ignoreCase, chars are folded before they are classified; folding is
+    // slightly coarser than CharUtils.equals for a few non-ASCII chars, so occurrences found in that mode are verified with regionMatches.
+    // The automaton reports occurrences by their end: once one is found, the scan goes on for as long as a longer delimiter could still end in
+    // an occurrence starting before it. At a given index, delimiterAt dispatches on the first char: each ASCII char maps to the delimiters
+    // which may start with it, in their original order.
+    private static final class MultiString extends DelimiterMatcher {
+
+        private static final int[] NONE = new int[0];
+
+        private final String[] delimiters;
+        private final boolean ignoreCase;
+        private final int[][] asciiCandidates = new int[128][];
+        private final int[] nonAsciiCandidates;
+        private final int maxLength;
+        // The class of each ASCII char, and the sorted non-ASCII chars of the delimiters, whose classes follow those of the ASCII chars
+        private final int[] asciiClasses = new int[128];
+        private final char[] nonAsciiChars;
+        private final int firstNonAsciiClass;
+        private final int classCount;
+        // The next state for each state and class, at state * classCount + class
+        private final int[] transitions;
+        // For each state, its depth if a delimiter ends there and 0 otherwise, and the nearest state on its failure chain where one ends, or -1
+        private final int[] matchLengths;
+        private final int[] outputLinks;
+
+        MultiString(final @NotNull List<String> delimiters, final boolean ignoreCase) {
+            this.delimiters = delimiters.toArray(new String[0]);
+            this.ignoreCase = ignoreCase;
+            for (char ch = 0; ch < 128; ch++) {
+                asciiCandidates[ch] = candidates(ch);
+            }
+            final List<Integer> nonAscii = new ArrayList<>();
+            for (int i = 0; i < this.delimiters.length; i++) {
+                final char first = this.delimiters[i].charAt(0);
+                // With ignoreCase, an ASCII first char may still match a non-ASCII one
+                if (first >= 128 || ignoreCase) {
+                    nonAscii.add(i);
+                }
+            }
+            nonAsciiCandidates = nonAscii.stream().mapToInt(Integer::intValue).toArray();
+
+            // Classes
+            final StringBuilder nonAsciiChars = new StringBuilder();
+            int maxLength = 0;
+            int trieSize = 1;
+            for (final String delimiter : this.delimiters) {
+                maxLength = Math.max(maxLength, delimiter.length());
+                trieSize += delimiter.length();
+                for (int i = 0; i < delimiter.length(); i++) {
+                    final char ch = key(delimiter.charAt(i));
+                    if (ch < 128) {
+                        asciiClasses[ch] = 1;
+                    } else {
+                        nonAsciiChars.append(ch);
+                    }
+                }
+            }
+            this.maxLength = maxLength;
+            int classCount = 1;
+            for (char ch = 0; ch < 128; ch++) {
+                if (asciiClasses[ch] != 0) {
+                    asciiClasses[ch] = classCount++;
+                }
+            }
+            this.nonAsciiChars = nonAsciiChars.chars().sorted().distinct().collect(StringBuilder::new, StringBuilder::appendCodePoint,
+                StringBuilder::append).toString().toCharArray();
+            this.firstNonAsciiClass = classCount;
+            this.classCount = classCount + this.nonAsciiChars.length;
+            if (ignoreCase) {
+                // ASCII chars which fold into a class of their own, such as the uppercase letters, share it
+                for (char ch = 0; ch < 128; ch++) {
+                    asciiClasses[ch] = asciiClasses[CharUtils.fold(ch)];
+                }
+            }
+
+            // Trie
+            final int[] transitions = new int[trieSize * this.classCount];
+            final int[] matchLengths = new int[trieSize];
+            int stateCount = 1;
+            for (final String delimiter : this.delimiters) {
+                int state = 0;
+                for (int i = 0; i < delimiter.length(); i++) {
+                    final int slot = state * this.classCount + classOf(key(delimiter.charAt(i)));
+                    if (transitions[slot] == 0) {
+                        transitions[slot] = stateCount++;
+                    }
+                    state = transitions[slot];
+                }
+                matchLengths[state] = delimiter.length();
+            }
+
+            // Failure links, breadth first, replacing the missing transitions of each state by those of its failure state
+            final int[] failures = new int[stateCount];
+            final int[] outputLinks = new int[stateCount];
+            outputLinks[0] = -1;
+            final int[] queue = new int[stateCount];
+            int head = 0;
+            int tail = 0;
+            for (int cls = 0; cls < this.classCount; cls++) {
+                final int child = transitions[cls];
+                if (child != 0) {
+                    outputLinks[child] = -1;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                final int state = queue[head++];
+                for (int cls = 0; cls < this.classCount; cls++) {
+                    final int slot = state * this.classCount + cls;
+                    final int fallback = transitions[failures[state] * this.classCount + cls];
+                    final int child = transitions[slot];
+                    if (child == 0) {
+                        transitions[slot] = fallback;
+                    } else {
+                        failures[child] = fallback;
+                        outputLinks[child] = matchLengths[fallback] != 0 ? fallback : outputLinks[fallback];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+            this.transitions = Arrays.copyOf(transitions, stateCount * this.classCount);
+            this.matchLengths = Arrays.copyOf(matchLengths, stateCount);
+            this.outputLinks = outputLinks;
+        }
+
+        private @NotNull int[] candidates(final char ch) {
+            final List<Integer> result = new ArrayList<>();
+            for (int i = 0; i < delimiters.length; i++) {
+                if (CharUtils.equals(ch, delimiters[i].charAt(0), ignoreCase)) {
+                    result.add(i);
+                }
+            }
+            return result.isEmpty() ? NONE : result.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private char key(final char ch) {
+            return ignoreCase ? CharUtils.fold(ch) : ch;
+        }
+
+        // Returns the class of the given char, already folded with ignoreCase unless it is ASCII.
+        private int classOf(final char ch) {
+            if (ch < 128) {
+                return asciiClasses[ch];
+            }
+            final int index = Arrays.binarySearch(nonAsciiChars, ch);
+            return index < 0 ? 0 : firstNonAsciiClass + index;
+        }
+
+        @Override
+        int indexIn(final @NotNull CharSequence seq, final int startIndex) {
+            final int length = seq.length();
+            int state = 0;
+            int found = -1;
+            for (int i = Math.max(startIndex, 0); i < length; i++) {
+                // An occurrence ending here or later starts at i - maxLength + 1 or later
+                if (found >= 0 && i - maxLength + 1 >= found) {
+                    break;
+                }
+                final char ch = seq.charAt(i);
+                state = transitions[state * classCount + (ch < 128 ? asciiClasses[ch] : classOf(key(ch)))];
+                // The delimiters ending here, from the longest, which starts first
+                for (int match = matchLengths[state] != 0 ? state : outputLinks[state]; match >= 0; match = outputLinks[match]) {
+                    final int start = i - matchLengths[match] + 1;
+                    if (found >= 0 && start >= found) {
+                        break;
+                    }
+                    if (!ignoreCase || matchAt(seq, start) >= 0) {
+                        found = start;
+                        break;
+                    }
+                }
+            }
+            return found;
+        }
+        @Override
+        int matchLength(final @NotNull CharSequence seq, final int index) {
+            return delimiters[matchAt(seq, index)].length();
+        }
+
+        @Override
+        int delimiterAt(final @NotNull CharSequence seq, final int index) {
+            return matchAt(seq, index);
+        }
+
+        // Returns the index of the first delimiter found at the given index, or -1.
+        private int matchAt(final @NotNull CharSequence seq, final int index) {
+            final char ch = seq.charAt(index);
+            final int[] candidates = ch < 128 ? asciiCandidates[ch] : nonAsciiCandidates;
+            for (final int candidate : candidates) {
+                final String delimiter = delimiters[candidate];
+                if (StringUtils.regionMatches(delimiter, 0, seq, index, delimiter.length(), ignoreCase)) {
+                    return candidate;
+                }
+            }
+            return -1;
+        }
+    }
+}
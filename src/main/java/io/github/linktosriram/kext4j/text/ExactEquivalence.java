@@ -0,0 +1,45 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+
+// Case-sensitive CharSequenceEquivalence, hashing like String.hashCode.
+final class ExactEquivalence implements CharSequenceEquivalence {
+
+    ExactEquivalence() {
+    }
+
+    @Override
+    public int hash(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        int h = 0;
+        if (seq instanceof String) {
+            final String str = (String) seq;
+            for (int i = startIndex; i < endIndex; i++) {
+                h = 31 * h + str.charAt(i);
+            }
+        } else {
+            for (int i = startIndex; i < endIndex; i++) {
+                h = 31 * h + seq.charAt(i);
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public boolean regionEquals(final @NotNull CharSequence first, final int firstOffset, final @NotNull CharSequence second, final int secondOffset,
+                                final int length) {
+        if (first instanceof String && second instanceof String) {
+            return ((String) first).regionMatches(firstOffset, (String) second, secondOffset, length);
+        }
+        for (int i = 0; i < length; i++) {
+            if (first.charAt(firstOffset + i) != second.charAt(secondOffset + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "EXACT";
+    }
+}
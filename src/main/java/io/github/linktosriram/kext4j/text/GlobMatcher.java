@@ -0,0 +1,223 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled glob pattern, where {@code *} matches any sequence of chars, {@code ?} matches exactly one char and {@code \} makes the next char
+ * literal. The whole input must match.
+ * <p>
+ * The pattern is split around its stars into segments. The segments before the first star and after the last one are checked in place at both
+ * ends of the input; the ones in between are searched left to right, each at the leftmost position it matches at, which is always a valid
+ * choice for stars, so nothing is ever backtracked: {@code *a*a*a*} costs three searches rather than exponential time. Segments are searched
+ * with {@link StringUtils#indexOf}, those with {@code ?} through their longest literal run.
+ * <p>
+ * Instances are immutable and thread-safe. {@link GlobSet} matches a key against many globs at once.
+ */
+public final class GlobMatcher {
+
+    private final String glob;
+    private final boolean ignoreCase;
+    // Before the first star, or the whole pattern without stars
+    private final Segment head;
+    private final Segment[] middle;
+    // After the last star, empty without stars
+    private final Segment tail;
+    private final boolean hasStar;
+    private final int minLength;
+
+    private GlobMatcher(final @NotNull String glob, final boolean ignoreCase) {
+        this.glob = glob;
+        this.ignoreCase = ignoreCase;
+        final List<Segment> segments = new ArrayList<>();
+        final StringBuilder chars = new StringBuilder();
+        final StringBuilder wildcards = new StringBuilder();
+        boolean hasStar = false;
+        for (int i = 0; i < glob.length(); i++) {
+            final char ch = glob.charAt(i);
+            if (ch == '*') {
+                if (!hasStar || chars.length() > 0) {
+                    segments.add(new Segment(chars.toString(), wildcards.toString(), ignoreCase));
+                }
+                chars.setLength(0);
+                wildcards.setLength(0);
+                hasStar = true;
+                continue;
+            }
+            if (ch == '\\') {
+                if (++i == glob.length()) {
+                    throw new IllegalArgumentException("Dangling escape at the end of glob '" + glob + '\'');
+                }
+                chars.append(glob.charAt(i));
+                wildcards.append(' ');
+            } else {
+                chars.append(ch);
+                wildcards.append(ch == '?' ? '?' : ' ');
+            }
+        }
+        segments.add(new Segment(chars.toString(), wildcards.toString(), ignoreCase));
+        this.hasStar = hasStar;
+        this.head = segments.get(0);
+        this.tail = hasStar ? segments.get(segments.size() - 1) : Segment.EMPTY;
+        this.middle = hasStar ? segments.subList(1, segments.size() - 1).toArray(new Segment[0]) : new Segment[0];
+        int minLength = head.length() + tail.length();
+        for (final Segment segment : middle) {
+            minLength += segment.length();
+        }
+        this.minLength = minLength;
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull GlobMatcher compile(final @NotNull String glob) {
+        return new GlobMatcher(glob, false);
+    }
+
+    // Compiles the given glob, whose literal chars match ignoring the case when ignoreCase is set. Throws IllegalArgumentException if the glob
+    // ends with an unescaped backslash.
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull GlobMatcher compile(final @NotNull String glob, final boolean ignoreCase) {
+        return new GlobMatcher(glob, ignoreCase);
+    }
+
+    public @NotNull String getPattern() {
+        return glob;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    // Indicates whether the glob matches the entire input.
+    public boolean matches(final @NotNull CharSequence input) {
+        final int length = input.length();
+        if (length < minLength) {
+            return false;
+        }
+        if (!hasStar) {
+            return length == head.length() && head.matchesAt(input, 0);
+        }
+        final int tailStart = length - tail.length();
+        if (!head.matchesAt(input, 0) || !tail.matchesAt(input, tailStart)) {
+            return false;
+        }
+        int fromIndex = head.length();
+        for (final Segment segment : middle) {
+            final int index = segment.indexIn(input, fromIndex, tailStart);
+            if (index < 0) {
+                return false;
+            }
+            fromIndex = index + segment.length();
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+
+    // The length of the shortest input the glob can match.
+    int minLength() {
+        return minLength;
+    }
+
+    // Returns the string the glob only matches when it has no wildcards, else null.
+    @Nullable String literal() {
+        return hasStar || head.hasWildcards() ? null : head.text;
+    }
+
+    // Returns the first char of the inputs the glob matches, or -1 if it may be any char.
+    int firstChar() {
+        return head.length() == 0 || head.isWildcard(0) ? -1 : head.text.charAt(0);
+    }
+
+    // A run of literal chars and ? wildcards between two stars.
+    private static final class Segment {
+
+        static final Segment EMPTY = new Segment("", "", false);
+
+        // The chars of the segment, with any char at the wildcard positions
+        private final String text;
+        // Whether each position is a wildcard, null if there are none
+        private final @Nullable boolean[] wildcards;
+        private final boolean ignoreCase;
+        // The longest run of literal chars, through which a segment with wildcards is searched, and its offset
+        private final String anchor;
+        private final int anchorOffset;
+
+        Segment(final @NotNull String text, final @NotNull String wildcards, final boolean ignoreCase) {
+            this.text = text;
+            this.ignoreCase = ignoreCase;
+            if (wildcards.indexOf('?') < 0) {
+                this.wildcards = null;
+                this.anchor = text;
+                this.anchorOffset = 0;
+                return;
+            }
+            this.wildcards = new boolean[text.length()];
+            int bestStart = 0;
+            int bestLength = 0;
+            int runStart = 0;
+            for (int i = 0; i <= text.length(); i++) {
+                if (i == text.length() || wildcards.charAt(i) == '?') {
+                    if (i - runStart > bestLength) {
+                        bestStart = runStart;
+                        bestLength = i - runStart;
+                    }
+                    runStart = i + 1;
+                    if (i < text.length()) {
+                        this.wildcards[i] = true;
+                    }
+                }
+            }
+            this.anchor = text.substring(bestStart, bestStart + bestLength);
+            this.anchorOffset = bestStart;
+        }
+
+        int length() {
+            return text.length();
+        }
+
+        boolean hasWildcards() {
+            return wildcards != null;
+        }
+
+        boolean isWildcard(final int index) {
+            return wildcards != null && wildcards[index];
+        }
+
+        boolean matchesAt(final @NotNull CharSequence input, final int index) {
+            final int length = text.length();
+            for (int i = 0; i < length; i++) {
+                if (!isWildcard(i) && !CharUtils.equals(input.charAt(index + i), text.charAt(i), ignoreCase)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Returns the leftmost index in [fromIndex, endIndex - length] the segment matches at, or -1.
+        int indexIn(final @NotNull CharSequence input, int fromIndex, final int endIndex) {
+            final int last = endIndex - text.length();
+            if (anchor.isEmpty()) {
+                return fromIndex <= last ? fromIndex : -1;
+            }
+            while (fromIndex <= last) {
+                final int found = StringUtils.indexOf(input, anchor, fromIndex + anchorOffset, ignoreCase);
+                final int index = found - anchorOffset;
+                if (found < 0 || index > last) {
+                    return -1;
+                }
+                if (wildcards == null || matchesAt(input, index)) {
+                    return index;
+                }
+                fromIndex = index + 1;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.linktosriram.kext4j.text;
+
+import io.github.linktosriram.kext4j.collection.CharSequenceMap;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of {@link GlobMatcher}s, indexed so that a key is only checked against the globs which may match it.
+ * <p>
+ * Globs without wildcards are looked up in a hash map. The others are bucketed by the first char of the inputs they match, globs starting
+ * with a wildcard being checked against every key. Globs are identified by their index in the collection the set was built from, and results
+ * are in that order.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class GlobSet {
+
+    private static final int[] NONE = new int[0];
+
+    private final GlobMatcher[] globs;
+    private final boolean ignoreCase;
+    private final CharSequenceMap<int[]> literals;
+    // Indices of the globs by the (folded when ignoring the case) first char they match
+    private final int[][] asciiBuckets = new int[128][];
+    private final Map<Character, int[]> otherBuckets = new HashMap<>();
+    // Indices of the globs which may start with any char
+    private final int[] anyFirstChar;
+
+    private GlobSet(final @NotNull Collection<String> globs, final boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+        this.globs = new GlobMatcher[globs.size()];
+        final Map<String, List<Integer>> literals = new HashMap<>();
+        final Map<Character, List<Integer>> buckets = new HashMap<>();
+        final List<Integer> anyFirstChar = new ArrayList<>();
+        int index = 0;
+        for (final String glob : globs) {
+            final GlobMatcher matcher = GlobMatcher.compile(glob, ignoreCase);
+            this.globs[index] = matcher;
+            final String literal = matcher.literal();
+            final int firstChar = matcher.firstChar();
+            if (literal != null) {
+                literals.computeIfAbsent(ignoreCase ? foldAll(literal) : literal, it -> new ArrayList<>()).add(index);
+            } else if (firstChar < 0) {
+                anyFirstChar.add(index);
+            } else {
+                buckets.computeIfAbsent(fold((char) firstChar), it -> new ArrayList<>()).add(index);
+            }
+            index++;
+        }
+        this.literals = new CharSequenceMap<>(literals.size(), ignoreCase);
+        literals.forEach((literal, indices) -> this.literals.put(literal, toArray(indices)));
+        buckets.forEach((ch, indices) -> {
+            if (ch < 128) {
+                asciiBuckets[ch] = toArray(indices);
+            } else {
+                otherBuckets.put(ch, toArray(indices));
+            }
+        });
+        this.anyFirstChar = toArray(anyFirstChar);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull GlobSet of(final @NotNull String... globs) {
+        return new GlobSet(Arrays.asList(globs), false);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull GlobSet of(final @NotNull Collection<String> globs) {
+        return new GlobSet(globs, false);
+    }
+
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull GlobSet of(final @NotNull Collection<String> globs, final boolean ignoreCase) {
+        return new GlobSet(globs, ignoreCase);
+    }
+
+    public int size() {
+        return globs.length;
+    }
+
+    // Returns the glob at the given index.
+    public @NotNull GlobMatcher get(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        return globs[index];
+    }
+
+    // Indicates whether any glob matches the given key.
+    public boolean matches(final @NotNull CharSequence key) {
+        return firstMatch(key) >= 0;
+    }
+
+    // Returns the index of the first glob matching the given key, or -1 if there is none.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int firstMatch(final @NotNull CharSequence key) {
+        // Each candidate array is sorted, so its first match is its smallest one
+        int result = first(literals.getOrDefault(key, 0, key.length(), NONE), key);
+        final int bucketed = first(bucket(key), key);
+        if (bucketed >= 0 && (result < 0 || bucketed < result)) {
+            result = bucketed;
+        }
+        final int any = first(anyFirstChar, key);
+        if (any >= 0 && (result < 0 || any < result)) {
+            result = any;
+        }
+        return result;
+    }
+
+    // Returns the indices of all the globs matching the given key, in ascending order.
+    public @NotNull int[] matchingIndices(final @NotNull CharSequence key) {
+        final int[] literal = literals.getOrDefault(key, 0, key.length(), NONE);
+        final int[] bucket = bucket(key);
+        final int[] result = new int[literal.length + bucket.length + anyFirstChar.length];
+        System.arraycopy(literal, 0, result, 0, literal.length);
+        int size = literal.length;
+        size = collect(bucket, key, result, size);
+        size = collect(anyFirstChar, key, result, size);
+        final int[] matching = Arrays.copyOf(result, size);
+        Arrays.sort(matching);
+        return matching;
+    }
+
+    private @NotNull int[] bucket(final @NotNull CharSequence key) {
+        if (key.length() == 0) {
+            return NONE;
+        }
+        final char first = fold(key.charAt(0));
+        final int[] bucket = first < 128 ? asciiBuckets[first] : otherBuckets.get(first);
+        return bucket != null ? bucket : NONE;
+    }
+
+    private int first(final @NotNull int[] candidates, final @NotNull CharSequence key) {
+        for (final int candidate : candidates) {
+            if (globs[candidate].matches(key)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private int collect(final @NotNull int[] candidates, final @NotNull CharSequence key, final @NotNull int[] result, int size) {
+        for (final int candidate : candidates) {
+            if (globs[candidate].matches(key)) {
+                result[size++] = candidate;
+            }
+        }
+        return size;
+    }
+
+    private char fold(final char ch) {
+        return ignoreCase ? CharUtils.fold(ch) : ch;
+    }
+
+    private static @NotNull String foldAll(final @NotNull String str) {
+        final char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = CharUtils.fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static @NotNull int[] toArray(final @NotNull List<Integer> indices) {
+        return indices.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
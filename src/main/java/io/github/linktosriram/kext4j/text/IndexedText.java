@@ -0,0 +1,215 @@
+package io.github.linktosriram.kext4j.text;
+
+import io.github.linktosriram.kext4j.Pair;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * An immutable text indexed once for many substring queries, each of which {@link StringUtils} answers by scanning the text.
+ * <p>
+ * The index is the suffix array of the text, built with SA-IS in linear time, and a wavelet matrix over it. The occurrences of a string are
+ * the suffixes it prefixes, which are contiguous in the suffix array and found by binary search in O(m log n) char comparisons for a string of
+ * length m in a text of length n, comparisons resuming after the prefix shared with both bounds of the search. Counting occurrences then takes
+ * constant time, and the first occurrence from or the last one before any index O(log n) more through the wavelet matrix.
+ * <p>
+ * Queries are case-sensitive and follow {@link String#indexOf(String, int)} and {@link String#lastIndexOf(String, int)}, which
+ * {@link StringUtils} delegates to for strings; occurrences may overlap. The index takes about {@code 4n + n log2(n) / 8} bytes on top of the
+ * text, and building it costs a few dozen passes over the text: {@link #getIndexSizeBytes()} and {@link #getBuildTimeNanos()} report both, to
+ * weigh against the number of queries.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class IndexedText {
+
+    private final String text;
+    private final int[] suffixArray;
+    private final WaveletMatrix positions;
+    private final long buildTimeNanos;
+
+    private IndexedText(final @NotNull String text) {
+        final long start = System.nanoTime();
+        this.text = text;
+        this.suffixArray = SuffixArrays.build(text);
+        this.positions = new WaveletMatrix(suffixArray, Math.max(text.length() - 1, 0));
+        this.buildTimeNanos = System.nanoTime() - start;
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull IndexedText of(final @NotNull CharSequence text) {
+        return new IndexedText(text.toString());
+    }
+
+    public @NotNull String text() {
+        return text;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    // Time taken to build the index, in nanoseconds.
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    // Approximate memory held by the index, in bytes, excluding the text itself.
+    public long getIndexSizeBytes() {
+        return 4L * suffixArray.length + positions.sizeInBytes();
+    }
+
+    public boolean contains(final @NotNull String str) {
+        return str.isEmpty() || lowerBound(str) < upperBound(str);
+    }
+
+    public @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull String str) {
+        return indexOf(str, 0);
+    }
+
+    // Returns the index of the first occurrence of the specified string, starting from the specified startIndex.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull String str, final int startIndex) {
+        final int length = text.length();
+        final int fromIndex = Math.max(startIndex, 0);
+        if (str.isEmpty()) {
+            return Math.min(fromIndex, length);
+        }
+        if (fromIndex > length - str.length()) {
+            return -1;
+        }
+        final int low = lowerBound(str);
+        final int high = upperBound(str);
+        return positions.nextValue(low, high, fromIndex);
+    }
+
+    public @Range(from = -1, to = Integer.MAX_VALUE) int lastIndexOf(final @NotNull String str) {
+        return lastIndexOf(str, StringUtils.lastIndex(text));
+    }
+
+    // Returns the index of the last occurrence of the specified string, searching backward from the specified startIndex.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int lastIndexOf(final @NotNull String str, final int startIndex) {
+        final int toIndex = Math.min(startIndex, text.length() - str.length());
+        if (toIndex < 0) {
+            return -1;
+        }
+        if (str.isEmpty()) {
+            return toIndex;
+        }
+        final int low = lowerBound(str);
+        final int high = upperBound(str);
+        return positions.previousValue(low, high, toIndex);
+    }
+
+    // Returns the number of possibly overlapping occurrences of the specified string, the empty string occurring at each of the length + 1
+    // positions of the text.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull String str) {
+        return str.isEmpty() ? text.length() + 1 : upperBound(str) - lowerBound(str);
+    }
+
+    // Returns the indices of all the possibly overlapping occurrences of the specified string, in ascending order.
+    public @NotNull int[] indicesOf(final @NotNull String str) {
+        if (str.isEmpty()) {
+            final int[] indices = new int[text.length() + 1];
+            Arrays.setAll(indices, i -> i);
+            return indices;
+        }
+        final int[] indices = Arrays.copyOfRange(suffixArray, lowerBound(str), upperBound(str));
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    public @NotNull Optional<Pair<Integer, String>> findAnyOf(final @NotNull Collection<String> strings) {
+        return findAnyOf(strings, 0);
+    }
+
+    // Finds the first occurrence of any of the specified strings, starting from the specified startIndex. The first of the strings wins when
+    // several occur at the same index.
+    public @NotNull Optional<Pair<Integer, String>> findAnyOf(final @NotNull Collection<String> strings, final int startIndex) {
+        // As StringUtils.findAnyOf, which only follows String.indexOf for a single string, the empty string is not found past the end
+        if (strings.size() != 1 && startIndex > text.length()) {
+            return Optional.empty();
+        }
+        int bestIndex = -1;
+        String best = null;
+        for (final String str : strings) {
+            final int index = indexOf(str, startIndex);
+            if (index >= 0 && (bestIndex < 0 || index < bestIndex)) {
+                bestIndex = index;
+                best = str;
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(new Pair<>(bestIndex, best));
+    }
+
+    public @NotNull Optional<Pair<Integer, String>> findLastAnyOf(final @NotNull Collection<String> strings) {
+        return findLastAnyOf(strings, StringUtils.lastIndex(text));
+    }
+
+    // Finds the last occurrence of any of the specified strings, searching backward from the specified startIndex. The first of the strings
+    // wins when several occur at the same index.
+    public @NotNull Optional<Pair<Integer, String>> findLastAnyOf(final @NotNull Collection<String> strings, final int startIndex) {
+        // As StringUtils.findLastAnyOf, which only follows String.lastIndexOf for a single string, the empty string is not found at the end
+        final int fromIndex = strings.size() == 1 ? startIndex : Math.min(startIndex, StringUtils.lastIndex(text));
+        int bestIndex = -1;
+        String best = null;
+        for (final String str : strings) {
+            final int index = lastIndexOf(str, fromIndex);
+            if (index > bestIndex) {
+                bestIndex = index;
+                best = str;
+            }
+        }
+        return best == null ? Optional.empty() : Optional.of(new Pair<>(bestIndex, best));
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    // Returns the position in the suffix array of the first suffix not less than str.
+    private int lowerBound(final @NotNull String str) {
+        return bound(str, false);
+    }
+
+    // Returns the position in the suffix array of the first suffix greater than str and not starting with it.
+    private int upperBound(final @NotNull String str) {
+        return bound(str, true);
+    }
+
+    private int bound(final @NotNull String str, final boolean afterMatches) {
+        final String text = this.text;
+        final int length = text.length();
+        final int strLength = str.length();
+        int low = 0;
+        int high = suffixArray.length;
+        // Chars of str shared with the suffixes just before low and at high, and so with every suffix in between
+        int lowCommon = 0;
+        int highCommon = 0;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int suffix = suffixArray[middle];
+            int common = Math.min(lowCommon, highCommon);
+            while (common < strLength && suffix + common < length && text.charAt(suffix + common) == str.charAt(common)) {
+                common++;
+            }
+            final boolean before;
+            if (common == strLength) {
+                before = afterMatches;
+            } else {
+                before = suffix + common == length || text.charAt(suffix + common) < str.charAt(common);
+            }
+            if (before) {
+                low = middle + 1;
+                lowCommon = common;
+            } else {
+                high = middle;
+                highCommon = common;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+
+/**
+ * An index of the lines of a char sequence, giving random access to any line and mapping offsets to lines without splitting the text.
+ * <p>
+ * Lines are delimited as by {@link StringUtils#lineSequence}: by CRLF, LF or CR, a text ending with a separator having a last empty line. The
+ * index is built in one pass and holds the start offset of each line in an {@code int[]}, 4 bytes per line rather than a {@link String}, so
+ * that {@link #line(int)} and {@link #lineStart(int)} take constant time and {@link #lineOf(int)} a binary search. Lines are returned as views
+ * over the indexed char sequence, which must not be modified afterwards.
+ * <p>
+ * Instances are thread-safe if the indexed char sequence is.
+ */
+public final class LineIndex {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final CharSequence seq;
+    private final int[] lineStarts;
+
+    private LineIndex(final @NotNull CharSequence seq) {
+        this.seq = seq;
+        final int length = seq.length();
+        int[] lineStarts = new int[DEFAULT_CAPACITY];
+        int lineCount = 1;
+        int index = CharScanner.indexOfLineSeparator(seq, 0, length);
+        while (index >= 0) {
+            final int next = seq.charAt(index) == '\r' && index + 1 < length && seq.charAt(index + 1) == '\n' ? index + 2 : index + 1;
+            if (lineCount == lineStarts.length) {
+                lineStarts = Arrays.copyOf(lineStarts, lineCount + (lineCount >> 1));
+            }
+            lineStarts[lineCount++] = next;
+            index = CharScanner.indexOfLineSeparator(seq, next, length);
+        }
+        this.lineStarts = lineStarts.length == lineCount ? lineStarts : Arrays.copyOf(lineStarts, lineCount);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull LineIndex of(final @NotNull CharSequence seq) {
+        return new LineIndex(seq);
+    }
+
+    // Returns the indexed char sequence.
+    public @NotNull CharSequence text() {
+        return seq;
+    }
+
+    // Returns the number of lines, at least one as the empty text has a single empty line.
+    public @Range(from = 1, to = Integer.MAX_VALUE) int lineCount() {
+        return lineStarts.length;
+    }
+
+    // Returns a view of the line at the given index, without its terminating line separator.
+    public @NotNull CharSequence line(final @Range(from = 0, to = Integer.MAX_VALUE) int lineIndex) {
+        return new Line(seq, lineStart(lineIndex), lineEnd(lineIndex));
+    }
+
+    // Returns the offset of the first char of the line at the given index.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int lineStart(final @Range(from = 0, to = Integer.MAX_VALUE) int lineIndex) {
+        checkLineIndex(lineIndex);
+        return lineStarts[lineIndex];
+    }
+
+    // Returns the offset just past the last char of the line at the given index, excluding its terminating line separator.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int lineEnd(final @Range(from = 0, to = Integer.MAX_VALUE) int lineIndex) {
+        checkLineIndex(lineIndex);
+        if (lineIndex == lineStarts.length - 1) {
+            return seq.length();
+        }
+        final int next = lineStarts[lineIndex + 1];
+        return next - 2 >= lineStarts[lineIndex] && seq.charAt(next - 1) == '\n' && seq.charAt(next - 2) == '\r' ? next - 2 : next - 1;
+    }
+
+    // Returns the index of the line containing the given offset, which may be the length of the text. The offsets of a line separator belong
+    // to the line it terminates.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int lineOf(final @Range(from = 0, to = Integer.MAX_VALUE) int offset) {
+        if (offset < 0 || offset > seq.length()) {
+            throw new IndexOutOfBoundsException("Offset out of bounds: " + offset + ", length: " + seq.length());
+        }
+        final int index = Arrays.binarySearch(lineStarts, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // Returns the zero-based column of the given offset within its line.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int columnOf(final @Range(from = 0, to = Integer.MAX_VALUE) int offset) {
+        return offset - lineStarts[lineOf(offset)];
+    }
+
+    private void checkLineIndex(final int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= lineStarts.length) {
+            throw new IndexOutOfBoundsException("Line index out of bounds: " + lineIndex + ", line count: " + lineStarts.length);
+        }
+    }
+
+    // Read-only view over a range of the indexed char sequence.
+    private static final class Line implements CharSequence {
+
+        private final CharSequence seq;
+        private final int startIndex;
+        private final int endIndex;
+
+        Line(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            this.seq = seq;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+        }
+
+        @Override
+        public int length() {
+            return endIndex - startIndex;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= endIndex - startIndex) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + (endIndex - startIndex));
+            }
+            return seq.charAt(startIndex + index);
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(final int startIndex, final int endIndex) {
+            if (startIndex < 0 || startIndex > endIndex || endIndex > length()) {
+                throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + length());
+            }
+            return new Line(seq, this.startIndex + startIndex, this.startIndex + endIndex);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return seq.subSequence(startIndex, endIndex).toString();
+        }
+    }
+}
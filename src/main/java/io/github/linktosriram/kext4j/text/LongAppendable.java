@@ -0,0 +1,14 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An {@link Appendable} which writes the decimal representation of a {@code long} itself, for instance straight into its buffer with
+ * {@link DecimalDigits}, rather than taking the temporary {@link String} of {@link Long#toString(long)}.
+ * {@link AppendableUtils#appendLong(Appendable, long)} hands the values it appends to such appendables as they are.
+ */
+public interface LongAppendable extends Appendable {
+
+    // Appends the decimal representation of the given value, as Long.toString(long) would.
+    @NotNull LongAppendable append(long value);
+}
@@ -0,0 +1,135 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A reusable cursor over the occurrences of one or more needles in char sequences, reporting each match as primitives rather than allocating
+ * a result per match as {@link StringUtils#findAnyOf} does.
+ * <p>
+ * Needles are analysed once, when the cursor is created; {@link #reset(CharSequence)} then points the cursor at a char sequence and each call
+ * to {@link #next()} advances it to the next match, whose {@link #index()}, {@link #end()} and {@link #needleIndex()} can be read until the
+ * following call. At a given index the first of the needles which occurs there wins, as with {@link StringUtils#findAnyOf}. Without overlaps,
+ * the search resumes after the end of each match; with them, at the next index, so that at most one match is reported per index.
+ * <pre>{@code
+ * final MatchCursor cursor = MatchCursor.of(Arrays.asList("ERROR", "WARN"));
+ * for (final String line : lines) {
+ *     cursor.reset(line);
+ *     while (cursor.next()) {
+ *         counts[cursor.needleIndex()]++;
+ *     }
+ * }
+ * }</pre>
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class MatchCursor {
+
+    private final DelimiterMatcher matcher;
+    private final int[] needleLengths;
+    private final boolean overlapping;
+
+    private CharSequence seq = "";
+    // Index the next search starts at, -1 once there are no more matches
+    private int fromIndex = -1;
+    // The current match, index -1 when there is none
+    private int index = -1;
+    private int needle;
+
+    private MatchCursor(final @NotNull Collection<String> needles, final boolean overlapping, final boolean ignoreCase) {
+        final List<String> list = new ArrayList<>(needles);
+        this.matcher = DelimiterMatcher.of(list, ignoreCase);
+        this.needleLengths = list.stream().mapToInt(String::length).toArray();
+        this.overlapping = overlapping;
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull MatchCursor of(final @NotNull String... needles) {
+        return new MatchCursor(Arrays.asList(needles), false, false);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull MatchCursor of(final @NotNull Collection<String> needles) {
+        return new MatchCursor(needles, false, false);
+    }
+
+    // Creates a cursor over the occurrences of the given needles, which must not be empty, possibly overlapping and optionally ignoring the
+    // case. Throws IllegalArgumentException if there are no needles or one of them is empty.
+    @Contract(value = "_, _, _ -> new", pure = true)
+    public static @NotNull MatchCursor of(final @NotNull Collection<String> needles, final boolean overlapping, final boolean ignoreCase) {
+        return new MatchCursor(needles, overlapping, ignoreCase);
+    }
+
+    // Points the cursor at the start of the given char sequence.
+    @Contract("_ -> this")
+    public @NotNull MatchCursor reset(final @NotNull CharSequence seq) {
+        return reset(seq, 0);
+    }
+
+    // Points the cursor at the given startIndex of the given char sequence.
+    @Contract("_, _ -> this")
+    public @NotNull MatchCursor reset(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        if (startIndex < 0 || startIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("Start index out of bounds: " + startIndex + ", length: " + seq.length());
+        }
+        this.seq = seq;
+        this.fromIndex = startIndex;
+        this.index = -1;
+        return this;
+    }
+
+    // Advances to the next match, returning false once there are no more.
+    public boolean next() {
+        if (fromIndex < 0) {
+            index = -1;
+            return false;
+        }
+        index = matcher.indexIn(seq, fromIndex);
+        if (index < 0) {
+            fromIndex = -1;
+            return false;
+        }
+        needle = needleLengths.length == 1 ? 0 : matcher.delimiterAt(seq, index);
+        fromIndex = overlapping ? index + 1 : index + needleLengths[needle];
+        return true;
+    }
+
+    // Returns the index of the current match.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int index() {
+        checkMatch();
+        return index;
+    }
+
+    // Returns the index just past the end of the current match.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int end() {
+        checkMatch();
+        return index + needleLengths[needle];
+    }
+
+    // Returns the position of the needle of the current match in the collection the cursor was created from.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int needleIndex() {
+        checkMatch();
+        return needle;
+    }
+
+    // Counts the remaining matches, leaving the cursor past the last one.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int count() {
+        int count = 0;
+        while (next()) {
+            count++;
+        }
+        return count;
+    }
+
+    private void checkMatch() {
+        if (index < 0) {
+            throw new IllegalStateException("No current match");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+// An immutable compressed trie, read either forward from the start of a region (prefixes) or backward from its end (suffixes, the keys being
+// stored reversed). Chains of nodes with a single child and no key are merged into one node labelled with their chars.
+// Nodes live in parallel arrays and the children of a node are contiguous and sorted by the first char of their label, so a walk touches a few
+// arrays rather than chasing pointers. With ignoreCase, labels are stored folded as CharUtils.fold does, and input chars are
+// folded before being compared.
+final class PackedTrie {
+
+    // Children lists up to this size are scanned, longer ones binary searched
+    private static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+    private final boolean ignoreCase;
+    private final boolean backward;
+    private final char[] labels;
+    private final int[] labelStarts;
+    private final int[] labelEnds;
+    private final char[] firstChars;
+    private final int[] firstChildren;
+    private final int[] childCounts;
+    // Index of the key ending at each node, -1 if none
+    private final int[] keys;
+
+    PackedTrie(final @NotNull List<String> keys, final boolean ignoreCase, final boolean backward) {
+        this.ignoreCase = ignoreCase;
+        this.backward = backward;
+        final BuildNode root = new BuildNode();
+        int nodeCount = 1;
+        for (int i = 0; i < keys.size(); i++) {
+            final String key = keys.get(i);
+            BuildNode node = root;
+            for (int j = 0; j < key.length(); j++) {
+                final char ch = fold(key.charAt(backward ? key.length() - 1 - j : j));
+                BuildNode child = node.children.get(ch);
+                if (child == null) {
+                    child = new BuildNode();
+                    node.children.put(ch, child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+            // Keys equal to an earlier one (ignoring the case when required) are shadowed by it
+            if (node.key < 0) {
+                node.key = i;
+            }
+        }
+        final StringBuilder labels = new StringBuilder();
+        final int[] labelStarts = new int[nodeCount];
+        final int[] labelEnds = new int[nodeCount];
+        final char[] firstChars = new char[nodeCount];
+        final int[] firstChildren = new int[nodeCount];
+        final int[] childCounts = new int[nodeCount];
+        final int[] nodeKeys = new int[nodeCount];
+        nodeKeys[0] = root.key;
+        int size = 1;
+        // Breadth first, so that the children of each node are laid out next to each other
+        final Queue<BuildNode> queue = new ArrayDeque<>();
+        final Queue<Integer> positions = new ArrayDeque<>();
+        queue.add(root);
+        positions.add(0);
+        while (!queue.isEmpty()) {
+            final BuildNode node = queue.remove();
+            final int packed = positions.remove();
+            firstChildren[packed] = size;
+            childCounts[packed] = node.children.size();
+            for (final Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+                final int index = size++;
+                firstChars[index] = child.getKey();
+                labelStarts[index] = labels.length();
+                labels.append(child.getKey());
+                BuildNode end = child.getValue();
+                while (end.key < 0 && end.children.size() == 1) {
+                    final Map.Entry<Character, BuildNode> only = end.children.firstEntry();
+                    labels.append(only.getKey());
+                    end = only.getValue();
+                }
+                labelEnds[index] = labels.length();
+                nodeKeys[index] = end.key;
+                queue.add(end);
+                positions.add(index);
+            }
+        }
+        this.labels = labels.toString().toCharArray();
+        this.labelStarts = Arrays.copyOf(labelStarts, size);
+        this.labelEnds = Arrays.copyOf(labelEnds, size);
+        this.firstChars = Arrays.copyOf(firstChars, size);
+        this.firstChildren = Arrays.copyOf(firstChildren, size);
+        this.childCounts = Arrays.copyOf(childCounts, size);
+        this.keys = Arrays.copyOf(nodeKeys, size);
+    }
+
+    // Returns the index of the longest key matching the region, or -1.
+    int longest(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        int result = keys[0];
+        int node = 0;
+        int consumed = 0;
+        final int available = endIndex - startIndex;
+        while (consumed < available) {
+            node = step(node, seq, startIndex, endIndex, consumed);
+            if (node < 0) {
+                break;
+            }
+            consumed += labelEnds[node] - labelStarts[node];
+            if (keys[node] >= 0) {
+                result = keys[node];
+            }
+        }
+        return result;
+    }
+
+    // Returns the indices of all the keys matching the region, shortest first.
+    @NotNull int[] all(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        int[] result = new int[4];
+        int size = 0;
+        if (keys[0] >= 0) {
+            result[size++] = keys[0];
+        }
+        int node = 0;
+        int consumed = 0;
+        final int available = endIndex - startIndex;
+        while (consumed < available) {
+            node = step(node, seq, startIndex, endIndex, consumed);
+            if (node < 0) {
+                break;
+            }
+            consumed += labelEnds[node] - labelStarts[node];
+            if (keys[node] >= 0) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, size * 2);
+                }
+                result[size++] = keys[node];
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    // Returns the child of node whose whole label matches the region chars from consumed on, or -1.
+    private int step(final int node, final @NotNull CharSequence seq, final int startIndex, final int endIndex, final int consumed) {
+        final int child = child(node, charAt(seq, startIndex, endIndex, consumed));
+        if (child < 0) {
+            return -1;
+        }
+        final int labelStart = labelStarts[child];
+        final int labelLength = labelEnds[child] - labelStart;
+        if (labelLength > endIndex - startIndex - consumed) {
+            return -1;
+        }
+        for (int i = 1; i < labelLength; i++) {
+            if (charAt(seq, startIndex, endIndex, consumed + i) != labels[labelStart + i]) {
+                return -1;
+            }
+        }
+        return child;
+    }
+
+    private int child(final int node, final char ch) {
+        final int first = firstChildren[node];
+        final int count = childCounts[node];
+        if (count <= LINEAR_SEARCH_THRESHOLD) {
+            for (int i = first; i < first + count; i++) {
+                if (firstChars[i] == ch) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int index = Arrays.binarySearch(firstChars, first, first + count, ch);
+        return index >= 0 ? index : -1;
+    }
+
+    // Returns the folded char at the given distance from the start of the region, or from its end when backward.
+    private char charAt(final @NotNull CharSequence seq, final int startIndex, final int endIndex, final int offset) {
+        return fold(seq.charAt(backward ? endIndex - 1 - offset : startIndex + offset));
+    }
+
+    private char fold(final char ch) {
+        return ignoreCase ? CharUtils.fold(ch) : ch;
+    }
+
+    private static final class BuildNode {
+
+        final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        int key = -1;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable index of prefixes, answering which of them a char sequence starts with in a single walk of a compressed trie, instead of one
+ * {@link StringUtils#startsWith} call per prefix.
+ * <p>
+ * Prefixes are identified by their index in the collection the index was built from. When several of them are equal (ignoring the case in
+ * ignoreCase mode), the first one shadows the others.
+ * Queries accept any {@link CharSequence} region, the prefixes being matched at the start of the region.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class PrefixIndex {
+
+    private final String[] prefixes;
+    private final boolean ignoreCase;
+    private final PackedTrie trie;
+
+    private PrefixIndex(final @NotNull Collection<String> prefixes, final boolean ignoreCase) {
+        this.prefixes = prefixes.toArray(new String[0]);
+        this.ignoreCase = ignoreCase;
+        this.trie = new PackedTrie(Arrays.asList(this.prefixes), ignoreCase, false);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull PrefixIndex of(final @NotNull String... prefixes) {
+        return new PrefixIndex(Arrays.asList(prefixes), false);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull PrefixIndex of(final @NotNull Collection<String> prefixes) {
+        return new PrefixIndex(prefixes, false);
+    }
+
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull PrefixIndex of(final @NotNull Collection<String> prefixes, final boolean ignoreCase) {
+        return new PrefixIndex(prefixes, ignoreCase);
+    }
+
+    public int size() {
+        return prefixes.length;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    // Returns the prefix at the given index.
+    public @NotNull String get(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        return prefixes[index];
+    }
+
+    // Indicates whether the given char sequence starts with any of the prefixes.
+    public boolean matches(final @NotNull CharSequence seq) {
+        return trie.longest(seq, 0, seq.length()) >= 0;
+    }
+
+    public @Range(from = -1, to = Integer.MAX_VALUE) int longestMatch(final @NotNull CharSequence seq) {
+        return trie.longest(seq, 0, seq.length());
+    }
+
+    // Returns the index of the longest prefix the region [startIndex, endIndex) of the given char sequence starts with, or -1 if there is none.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int longestMatch(final @NotNull CharSequence seq,
+                                                                     final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                                                     final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        checkBounds(seq, startIndex, endIndex);
+        return trie.longest(seq, startIndex, endIndex);
+    }
+
+    public @NotNull int[] allMatches(final @NotNull CharSequence seq) {
+        return trie.all(seq, 0, seq.length());
+    }
+
+    // Returns the indices of all the prefixes the region [startIndex, endIndex) of the given char sequence starts with, shortest first.
+    public @NotNull int[] allMatches(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                     final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        checkBounds(seq, startIndex, endIndex);
+        return trie.all(seq, startIndex, endIndex);
+    }
+
+    // Returns the longest prefix the given char sequence starts with, as given to this index, or null if there is none.
+    public @Nullable String longestPrefix(final @NotNull CharSequence seq) {
+        final int index = trie.longest(seq, 0, seq.length());
+        return index < 0 ? null : prefixes[index];
+    }
+
+    // Returns the given char sequence without the longest prefix it starts with, or as is if there is none.
+    public @NotNull String removeLongestPrefix(final @NotNull CharSequence seq) {
+        final int index = trie.longest(seq, 0, seq.length());
+        final int length = index < 0 ? 0 : prefixes[index].length();
+        return seq.subSequence(length, seq.length()).toString();
+    }
+
+    private static void checkBounds(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + seq.length());
+        }
+    }
+}
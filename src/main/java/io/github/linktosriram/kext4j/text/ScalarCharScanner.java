@@ -0,0 +1,202 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+// Implementations of the CharScanner operations without the Vector API.
+// Delimiter sets are matched through a 128 bit ASCII bitmap held in two long words, so each char costs a shift and a mask instead of one
+// comparison per delimiter. Searches for one or two chars and counts past the first SCALAR_PREFIX chars copy the rest into the chunk buffer of
+// CharChunks and compare it four chars at a time, packed into a long of four 16 bit lanes: xoring the word with the searched char repeated in
+// every lane turns the lanes equal to it into zero lanes, which a few arithmetic operations on the whole word then pick out.
+final class ScalarCharScanner {
+
+    // Searches often stop within a few chars, at the end of a short line or token, so the first chars are compared in place
+    private static final int SCALAR_PREFIX = 64;
+    // The lowest bit of each 16 bit lane, multiplied by a char to repeat it in every lane
+    private static final long LANES = 0x0001000100010001L;
+    // All but the highest bit of each 16 bit lane
+    private static final long LOW_BITS = 0x7FFF7FFF7FFF7FFFL;
+
+    @Contract(value = " -> fail", pure = true)
+    private ScalarCharScanner() {
+        throw new AssertionError();
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull CharSequence seq, final @NotNull char[] chars, final int startIndex,
+                                                                    final int endIndex, final boolean ignoreCase) {
+        if (!ignoreCase && (chars.length == 1 || chars.length == 2)) {
+            return indexOfEither(seq, chars[0], chars[chars.length - 1], startIndex, endIndex);
+        }
+        long low = 0;
+        long high = 0;
+        boolean ascii = true;
+        for (final char ch : chars) {
+            if (ch >= 128) {
+                ascii = false;
+                break;
+            }
+            if (ignoreCase) {
+                low |= bit(Character.toLowerCase(ch), 0);
+                high |= bit(Character.toLowerCase(ch), 64);
+                low |= bit(Character.toUpperCase(ch), 0);
+                high |= bit(Character.toUpperCase(ch), 64);
+            }
+            low |= bit(ch, 0);
+            high |= bit(ch, 64);
+        }
+        if (!ascii) {
+            return indexOfAnySlow(seq, chars, startIndex, endIndex, ignoreCase);
+        }
+        for (int i = startIndex; i < endIndex; i++) {
+            final char ch = seq.charAt(i);
+            if (ch < 64) {
+                if ((low >>> ch & 1L) != 0) {
+                    return i;
+                }
+            } else if (ch < 128) {
+                if ((high >>> (ch - 64) & 1L) != 0) {
+                    return i;
+                }
+            } else if (ignoreCase && containsIgnoreCase(chars, ch)) {
+                // Some non-ASCII chars such as the Kelvin sign fold into ASCII letters
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfLineSeparator(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        return indexOfEither(seq, '\n', '\r', startIndex, endIndex);
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfNonWhitespace(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        for (int i = startIndex; i < endIndex; i++) {
+            if (!isWhitespace(seq.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final char ch, final int startIndex, final int endIndex) {
+        int count = 0;
+        if (endIndex - startIndex <= SCALAR_PREFIX) {
+            for (int i = startIndex; i < endIndex; i++) {
+                if (seq.charAt(i) == ch) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        // Counting reads every char, so chunks are copied from the start
+        final long lanes = ch * LANES;
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int base = startIndex; base < endIndex; base += chunk.length) {
+                final int length = Math.min(chunk.length, endIndex - base);
+                CharChunks.getChars(seq, base, base + length, chunk, 0);
+                int i = 0;
+                for (; i <= length - 4; i += 4) {
+                    count += Long.bitCount(zeroLanes(CharUtils.pack(chunk, i) ^ lanes));
+                }
+                for (; i < length; i++) {
+                    if (chunk[i] == ch) {
+                        count++;
+                    }
+                }
+            }
+        } finally {
+            CharChunks.release(chunk);
+        }
+        return count;
+    }
+
+    // Same result as Character.isWhitespace, answering the ASCII range without a table lookup.
+    static boolean isWhitespace(final char ch) {
+        if (ch < 128) {
+            return ch == ' ' || ch >= 0x09 && ch <= 0x0D || ch >= 0x1C && ch <= 0x1F;
+        }
+        return Character.isWhitespace(ch);
+    }
+
+    // Returns the index of the first char in [startIndex, endIndex) equal to first or second, or -1.
+    private static int indexOfEither(final @NotNull CharSequence seq, final char first, final char second, final int startIndex, final int endIndex) {
+        final int prefixEnd = Math.min(endIndex, startIndex + SCALAR_PREFIX);
+        for (int i = startIndex; i < prefixEnd; i++) {
+            final char ch = seq.charAt(i);
+            if (ch == first || ch == second) {
+                return i;
+            }
+        }
+        if (prefixEnd == endIndex) {
+            return -1;
+        }
+        final long firstLanes = first * LANES;
+        final long secondLanes = second * LANES;
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int base = prefixEnd; base < endIndex; base += chunk.length) {
+                final int length = Math.min(chunk.length, endIndex - base);
+                CharChunks.getChars(seq, base, base + length, chunk, 0);
+                int i = 0;
+                for (; i <= length - 4; i += 4) {
+                    final long word = CharUtils.pack(chunk, i);
+                    final long found = zeroLanes(word ^ firstLanes) | zeroLanes(word ^ secondLanes);
+                    if (found != 0) {
+                        // Lanes are packed from the lowest bits up, so the lowest lane found is the first
+                        return base + i + (Long.numberOfTrailingZeros(found) >>> 4);
+                    }
+                }
+                for (; i < length; i++) {
+                    final char ch = chunk[i];
+                    if (ch == first || ch == second) {
+                        return base + i;
+                    }
+                }
+            }
+        } finally {
+            CharChunks.release(chunk);
+        }
+        return -1;
+    }
+
+    // Returns the word with the highest bit of each zero lane of the given word set and all other bits clear. Adding LOW_BITS to the low 15 bits
+    // of a lane carries into its highest bit unless they are all zero, and never into the next lane, so the result is exact in every lane.
+    private static long zeroLanes(final long word) {
+        return ~((word & LOW_BITS) + LOW_BITS | word | LOW_BITS);
+    }
+
+    private static int indexOfAnySlow(final @NotNull CharSequence seq, final @NotNull char[] chars, final int startIndex, final int endIndex,
+                                      final boolean ignoreCase) {
+        for (int i = startIndex; i < endIndex; i++) {
+            final char ch = seq.charAt(i);
+            if (ignoreCase ? containsIgnoreCase(chars, ch) : contains(chars, ch)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean contains(final @NotNull char[] chars, final char ch) {
+        for (final char element : chars) {
+            if (element == ch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsIgnoreCase(final @NotNull char[] chars, final char ch) {
+        for (final char element : chars) {
+            if (CharUtils.equals(element, ch, true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long bit(final char ch, final int base) {
+        return ch >= base && ch < base + 64 ? 1L << (ch - base) : 0L;
+    }
+}
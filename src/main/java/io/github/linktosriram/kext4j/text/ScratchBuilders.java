@@ -0,0 +1,48 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A per-thread scratch {@link StringBuilder} for building strings of unknown length, so that its array, once grown, is reused by the next
+ * string built on the same thread rather than grown again from the default capacity.
+ * <p>
+ * {@link #acquire()} hands out the builder of the current thread, and {@link #release(StringBuilder)} returns its contents and gives it back.
+ * A builder which grew past {@link #MAX_RETAINED_CAPACITY} chars is dropped on release, so that a thread does not retain a huge array after a
+ * single large string. A nested acquire, while the builder of the thread is in use, gets a new builder.
+ */
+public final class ScratchBuilders {
+
+    public static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 256;
+    // One slot per thread, empty while its builder is in use
+    private static final ThreadLocal<StringBuilder[]> SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder[1]);
+
+    @Contract(value = " -> fail", pure = true)
+    private ScratchBuilders() {
+        throw new AssertionError();
+    }
+
+    // Returns the empty scratch builder of the current thread, or a new builder if it is in use.
+    public static @NotNull StringBuilder acquire() {
+        final StringBuilder[] slot = SCRATCH.get();
+        final StringBuilder builder = slot[0];
+        if (builder == null) {
+            return new StringBuilder(INITIAL_CAPACITY);
+        }
+        slot[0] = null;
+        return builder;
+    }
+
+    // Returns the contents of the given builder, acquired on the current thread, and keeps it for reuse unless it grew too large. The builder
+    // must not be used afterwards.
+    public static @NotNull String release(final @NotNull StringBuilder builder) {
+        final String result = builder.toString();
+        if (builder.capacity() <= MAX_RETAINED_CAPACITY) {
+            builder.setLength(0);
+            SCRATCH.get()[0] = builder;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.linktosriram.kext4j.text;
+
+import io.github.linktosriram.kext4j.Preconditions;
+import io.github.linktosriram.kext4j.range.IntRange;
+import io.github.linktosriram.kext4j.sequence.Sequence;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static io.github.linktosriram.kext4j.collection.CollectionUtils.optimizeReadOnlyList;
+
+/**
+ * An immutable, thread-safe splitter, configured once and reused for any number of inputs.
+ * <p>
+ * {@link StringUtils#split} analyses its delimiters on every call. A {@code Splitter} does it when it is built, picking a dedicated matcher for a
+ * single char, a set of chars, a single string or several strings (dispatching on their first char). Without options, it produces the same
+ * tokens as {@link StringUtils#split} with the same delimiters, ignoreCase and limit:
+ * <pre>{@code
+ * private static final Splitter FIELDS = Splitter.on(',').trimResults().omitEmptyStrings();
+ * ...
+ * List<String> fields = FIELDS.split(record);
+ * }</pre>
+ * With {@link #omitEmptyStrings()}, omitted tokens do not count toward the {@link #limit(int)}.
+ */
+public final class Splitter {
+
+    private final DelimiterMatcher matcher;
+    private final Object delimiters;
+    private final boolean ignoreCase;
+    private final int limit;
+    private final boolean trimResults;
+    private final boolean omitEmptyStrings;
+
+    private Splitter(final @NotNull Object delimiters, final boolean ignoreCase, final int limit, final boolean trimResults,
+                     final boolean omitEmptyStrings) {
+        this.delimiters = delimiters;
+        this.ignoreCase = ignoreCase;
+        this.limit = limit;
+        this.trimResults = trimResults;
+        this.omitEmptyStrings = omitEmptyStrings;
+        this.matcher = delimiters instanceof char[] ?
+            DelimiterMatcher.of((char[]) delimiters, ignoreCase) :
+            DelimiterMatcher.of(Arrays.asList((String[]) delimiters), ignoreCase);
+    }
+
+    // Returns a splitter on any of the given chars.
+    @Contract(pure = true)
+    public static @NotNull Splitter on(final @NotNull char... delimiters) {
+        return new Splitter(delimiters.clone(), false, 0, false, false);
+    }
+
+    // Returns a splitter on any of the given non-empty strings. When several of them match at the same index, the first one given wins.
+    @Contract(pure = true)
+    public static @NotNull Splitter on(final @NotNull String... delimiters) {
+        return new Splitter(delimiters.clone(), false, 0, false, false);
+    }
+
+    // Returns a splitter on any of the given non-empty strings. When several of them match at the same index, the first one in iteration order
+    // wins.
+    @Contract(pure = true)
+    public static @NotNull Splitter on(final @NotNull Collection<String> delimiters) {
+        return new Splitter(delimiters.toArray(new String[0]), false, 0, false, false);
+    }
+
+    // Returns a splitter matching the delimiters ignoring the case.
+    @Contract(pure = true)
+    public @NotNull Splitter ignoreCase() {
+        return new Splitter(delimiters, true, limit, trimResults, omitEmptyStrings);
+    }
+
+    // Returns a splitter producing at most limit tokens, the last one holding the rest of the input. 0 means no limit.
+    @Contract(pure = true)
+    public @NotNull Splitter limit(final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        Preconditions.require(limit >= 0, () -> "Limit must be non-negative, but was " + limit);
+        return new Splitter(delimiters, ignoreCase, limit, trimResults, omitEmptyStrings);
+    }
+
+    // Returns a splitter removing leading and trailing whitespace from each token.
+    @Contract(pure = true)
+    public @NotNull Splitter trimResults() {
+        return new Splitter(delimiters, ignoreCase, limit, true, omitEmptyStrings);
+    }
+
+    // Returns a splitter skipping empty tokens (after trimming when trimResults is set).
+    @Contract(pure = true)
+    public @NotNull Splitter omitEmptyStrings() {
+        return new Splitter(delimiters, ignoreCase, limit, trimResults, true);
+    }
+
+    // Splits the given char sequence to a list of strings.
+    public @NotNull List<String> split(final @NotNull CharSequence seq) {
+        final List<String> result = new ArrayList<>();
+        final Cursor cursor = cursor(seq);
+        while (cursor.next()) {
+            result.add(cursor.token());
+        }
+        return optimizeReadOnlyList(result);
+    }
+
+    // Lazily splits the given char sequence to strings.
+    public @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence seq) {
+        return () -> new CursorIterator<String>(cursor(seq)) {
+            @Override
+            @NotNull String current(final @NotNull Cursor cursor) {
+                return cursor.token();
+            }
+        };
+    }
+
+    // Lazily splits the given char sequence to the ranges of its tokens, without creating any string.
+    public @NotNull Sequence<IntRange> splitToRanges(final @NotNull CharSequence seq) {
+        return () -> new CursorIterator<IntRange>(cursor(seq)) {
+            @Override
+            @NotNull IntRange current(final @NotNull Cursor cursor) {
+                return cursor.range();
+            }
+        };
+    }
+
+    // Returns a cursor over the tokens of the given char sequence, which exposes their bounds without allocating per token.
+    public @NotNull Cursor cursor(final @NotNull CharSequence seq) {
+        return new Cursor(seq);
+    }
+
+    // Splits the given char sequence into key/value entries, each token being split around the first keyValueSeparator. Keys and values are
+    // trimmed when trimResults is set. Throws IllegalArgumentException if a token has no separator or a key is repeated.
+    public @NotNull Map<String, String> splitToMap(final @NotNull CharSequence seq, final char keyValueSeparator) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        final Cursor cursor = cursor(seq);
+        while (cursor.next()) {
+            final int start = cursor.start();
+            final int end = cursor.end();
+            int separator = -1;
+            for (int i = start; i < end; i++) {
+                if (seq.charAt(i) == keyValueSeparator) {
+                    separator = i;
+                    break;
+                }
+            }
+            if (separator < 0) {
+                throw new IllegalArgumentException("Entry '" + seq.subSequence(start, end) + "' has no key/value separator '" + keyValueSeparator + '\'');
+            }
+            final String key = substring(seq, start, separator);
+            final String value = substring(seq, separator + 1, end);
+            if (result.put(key, value) != null) {
+                throw new IllegalArgumentException("Duplicate key '" + key + '\'');
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private @NotNull String substring(final @NotNull CharSequence seq, int start, int end) {
+        if (trimResults) {
+            while (start < end && ScalarCharScanner.isWhitespace(seq.charAt(start))) {
+                start++;
+            }
+            while (end > start && ScalarCharScanner.isWhitespace(seq.charAt(end - 1))) {
+                end--;
+            }
+        }
+        return seq.subSequence(start, end).toString();
+    }
+
+    /**
+     * A cursor over the tokens of one input: each successful {@link #next()} moves to the next token, whose bounds are then given by
+     * {@link #start()} and {@link #end()}. Not thread-safe.
+     */
+    public final class Cursor {
+
+        private final CharSequence seq;
+        // Index the next token starts at, -1 once the input is exhausted
+        private int position;
+        private int count;
+        private int start = -1;
+        private int end = -1;
+
+        Cursor(final @NotNull CharSequence seq) {
+            this.seq = seq;
+        }
+
+        // Moves to the next token, returning false if there is none.
+        public boolean next() {
+            final int length = seq.length();
+            while (position >= 0) {
+                int tokenStart = position;
+                int tokenEnd;
+                final int index = limit > 0 && count == limit - 1 ? -1 : matcher.indexIn(seq, position);
+                if (index < 0) {
+                    tokenEnd = length;
+                    position = -1;
+                } else {
+                    tokenEnd = index;
+                    position = index + matcher.matchLength(seq, index);
+                }
+                if (trimResults) {
+                    while (tokenStart < tokenEnd && ScalarCharScanner.isWhitespace(seq.charAt(tokenStart))) {
+                        tokenStart++;
+                    }
+                    while (tokenEnd > tokenStart && ScalarCharScanner.isWhitespace(seq.charAt(tokenEnd - 1))) {
+                        tokenEnd--;
+                    }
+                }
+                if (omitEmptyStrings && tokenStart == tokenEnd) {
+                    continue;
+                }
+                start = tokenStart;
+                end = tokenEnd;
+                count++;
+                return true;
+            }
+            start = -1;
+            end = -1;
+            return false;
+        }
+
+        // Returns the index of the first char of the current token.
+        public @Range(from = 0, to = Integer.MAX_VALUE) int start() {
+            checkCurrent();
+            return start;
+        }
+
+        // Returns the index after the last char of the current token.
+        public @Range(from = 0, to = Integer.MAX_VALUE) int end() {
+            checkCurrent();
+            return end;
+        }
+
+        // Returns the current token as a string.
+        public @NotNull String token() {
+            checkCurrent();
+            return seq.subSequence(start, end).toString();
+        }
+
+        // Returns the range of the current token, with an inclusive end as the other ranges of this library.
+        public @NotNull IntRange range() {
+            checkCurrent();
+            return new IntRange(start, end - 1);
+        }
+
+        private void checkCurrent() {
+            if (start < 0) {
+                throw new NoSuchElementException("No current token, next() must return true first");
+            }
+        }
+    }
+
+    private abstract static class CursorIterator<T> implements Iterator<T> {
+
+        private final Cursor cursor;
+        private int nextState = -1; // -1 for unknown, 0 for done, 1 for continue
+
+        CursorIterator(final @NotNull Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        abstract @NotNull T current(@NotNull Cursor cursor);
+
+        @Override
+        public boolean hasNext() {
+            if (nextState == -1) {
+                nextState = cursor.next() ? 1 : 0;
+            }
+            return nextState == 1;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            nextState = -1;
+            return current(cursor);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Append-only packed storage for a large number of small strings, such as the tokens produced by {@link StringUtils#split} or
+ * {@link StringUtils#lines} on big inputs.
+ * <p>
+ * The chars of all tokens are copied back to back into shared {@code char[]} slabs of 64K chars, and each token costs two
+ * {@code int}s (its position and its length) instead of a {@link String} object and its own {@code char[]}. Tokens are read back by index,
+ * either as a {@link String} ({@link #getString(int)}) or as a lightweight {@link CharSequence} view over the slab ({@link #get(int)}).
+ * Tokens longer than a slab get a dedicated array.
+ * <p>
+ * This class is not thread-safe. Views and indices stay valid for the lifetime of the arena.
+ */
+public final class StringArena {
+
+    // Positions are (slab index << SLAB_SHIFT) | offset in slab, so a token never spans two slabs
+    private static final int SLAB_SHIFT = 16;
+    private static final int SLAB_SIZE = 1 << SLAB_SHIFT;
+    private static final int SLAB_MASK = SLAB_SIZE - 1;
+    private static final int MAX_SLABS = Integer.MAX_VALUE >>> SLAB_SHIFT;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private char[][] slabs = new char[4][];
+    // Index of the slab being filled, -1 before the first token
+    private int currentSlab = -1;
+    // Next free offset in the current slab
+    private int slabOffset = SLAB_SIZE;
+
+    private int[] positions;
+    private int[] lengths;
+    private int size;
+    private long charCount;
+
+    public StringArena() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates an arena with room for the given number of tokens before its index arrays have to grow.
+    public StringArena(final @Range(from = 0, to = Integer.MAX_VALUE) int expectedTokens) {
+        if (expectedTokens < 0) {
+            throw new IllegalArgumentException("Expected tokens must be non-negative, but was " + expectedTokens);
+        }
+        positions = new int[expectedTokens];
+        lengths = new int[expectedTokens];
+    }
+
+    // Appends a copy of the given char sequence and returns its index.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int add(final @NotNull CharSequence seq) {
+        return add(seq, 0, seq.length());
+    }
+
+    // Appends a copy of the chars in [startIndex, endIndex) of the given char sequence and returns its index.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int add(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                                            final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + seq.length());
+        }
+        final int length = endIndex - startIndex;
+        final int position = allocate(length);
+        final char[] slab = slabs[position >>> SLAB_SHIFT];
+        final int offset = position & SLAB_MASK;
+        if (seq instanceof String) {
+            ((String) seq).getChars(startIndex, endIndex, slab, offset);
+        } else if (seq instanceof StringBuilder) {
+            ((StringBuilder) seq).getChars(startIndex, endIndex, slab, offset);
+        } else if (seq instanceof Slice) {
+            final Slice slice = (Slice) seq;
+            System.arraycopy(slice.chars, slice.offset + startIndex, slab, offset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                slab[offset + i] = seq.charAt(startIndex + i);
+            }
+        }
+
+        if (size == positions.length) {
+            final int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            positions = Arrays.copyOf(positions, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        positions[size] = position;
+        lengths[size] = length;
+        charCount += length;
+        return size++;
+    }
+
+    // Reserves room for a token of the given length and returns its position.
+    private int allocate(final int length) {
+        // A full slab (or a jumbo one) cannot take even an empty token, as its position would point past the slab
+        if (slabOffset < SLAB_SIZE && length <= SLAB_SIZE - slabOffset) {
+            final int position = currentSlab << SLAB_SHIFT | slabOffset;
+            slabOffset += length;
+            return position;
+        }
+        final int firstSlab = currentSlab + 1;
+        if (length > SLAB_SIZE) {
+            // A jumbo token gets its own array, and takes up as many slab indices as a regular one would so positions stay monotonic
+            final int slabCount = (length + SLAB_MASK) >>> SLAB_SHIFT;
+            ensureSlabs(firstSlab + slabCount);
+            slabs[firstSlab] = new char[length];
+            currentSlab = firstSlab + slabCount - 1;
+            slabOffset = SLAB_SIZE;
+        } else {
+            ensureSlabs(firstSlab + 1);
+            slabs[firstSlab] = new char[SLAB_SIZE];
+            currentSlab = firstSlab;
+            slabOffset = length;
+        }
+        return firstSlab << SLAB_SHIFT;
+    }
+
+    private void ensureSlabs(final int count) {
+        if (count > MAX_SLABS) {
+            throw new IllegalStateException("StringArena cannot hold more than " + ((long) MAX_SLABS << SLAB_SHIFT) + " chars");
+        }
+        if (count > slabs.length) {
+            slabs = Arrays.copyOf(slabs, Math.min(MAX_SLABS, Math.max(count, slabs.length * 2)));
+        }
+    }
+
+    // Returns the number of tokens in this arena.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the total number of chars of all the tokens in this arena.
+    public @Range(from = 0, to = Long.MAX_VALUE) long charCount() {
+        return charCount;
+    }
+
+    // Returns the length of the token at the given index.
+    public @Range(from = 0, to = Integer.MAX_VALUE) int length(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        checkIndex(index);
+        return lengths[index];
+    }
+
+    // Returns the char at charIndex in the token at the given index.
+    public char charAt(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final @Range(from = 0, to = Integer.MAX_VALUE) int charIndex) {
+        checkIndex(index);
+        if (charIndex < 0 || charIndex >= lengths[index]) {
+            throw new IndexOutOfBoundsException("charIndex: " + charIndex + ", length: " + lengths[index]);
+        }
+        final int position = positions[index];
+        return slabs[position >>> SLAB_SHIFT][(position & SLAB_MASK) + charIndex];
+    }
+
+    // Returns a view of the token at the given index, backed by the arena storage.
+    public @NotNull CharSequence get(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        checkIndex(index);
+        final int position = positions[index];
+        return new Slice(slabs[position >>> SLAB_SHIFT], position & SLAB_MASK, lengths[index]);
+    }
+
+    // Returns a new String with the chars of the token at the given index.
+    public @NotNull String getString(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        checkIndex(index);
+        final int position = positions[index];
+        return new String(slabs[position >>> SLAB_SHIFT], position & SLAB_MASK, lengths[index]);
+    }
+
+    // Returns true if the token at the given index has the same chars as the given char sequence.
+    public boolean contentEquals(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final @NotNull CharSequence seq) {
+        checkIndex(index);
+        final int length = lengths[index];
+        if (seq.length() != length) {
+            return false;
+        }
+        final int position = positions[index];
+        final char[] slab = slabs[position >>> SLAB_SHIFT];
+        final int offset = position & SLAB_MASK;
+        for (int i = 0; i < length; i++) {
+            if (slab[offset + i] != seq.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Appends the token at the given index to the given StringBuilder without creating an intermediate String.
+    public @NotNull StringBuilder appendTo(final @Range(from = 0, to = Integer.MAX_VALUE) int index, final @NotNull StringBuilder builder) {
+        checkIndex(index);
+        final int position = positions[index];
+        return builder.append(slabs[position >>> SLAB_SHIFT], position & SLAB_MASK, lengths[index]);
+    }
+
+    // Returns a read-only list view of the tokens, reflecting tokens added later on.
+    public @NotNull List<CharSequence> asList() {
+        return new TokenList();
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "StringArena(size=" + size + ", chars=" + charCount + ", slabs=" + (currentSlab + 1) + ')';
+    }
+
+    private final class TokenList extends AbstractList<CharSequence> implements RandomAccess {
+
+        @Override
+        public @NotNull CharSequence get(final int index) {
+            return StringArena.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Read-only view over a range of a slab. Its hash code is the one of the String with the same chars.
+    private static final class Slice implements CharSequence {
+
+        private final char[] chars;
+        private final int offset;
+        private final int length;
+
+        Slice(final @NotNull char[] chars, final int offset, final int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+            }
+            return chars[offset + index];
+        }
+
+        @Override
+        public @NotNull CharSequence subSequence(final int startIndex, final int endIndex) {
+            if (startIndex < 0 || startIndex > endIndex || endIndex > length) {
+                throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + length);
+            }
+            return new Slice(chars, offset + startIndex, endIndex - startIndex);
+        }
+
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Slice)) {
+                return false;
+            }
+            final Slice other = (Slice) obj;
+            if (length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (chars[offset + i] != other.chars[other.offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (int i = offset; i < offset + length; i++) {
+                h = 31 * h + chars[i];
+            }
+            return h;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
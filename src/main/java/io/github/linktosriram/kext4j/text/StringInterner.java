@@ -0,0 +1,81 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, thread-safe cache of canonical {@link String}s, used to deduplicate tokens that repeat across many inputs (status codes,
+ * country names, user agents...).
+ * <p>
+ * {@link #intern(CharSequence, int, int)} hashes the region in place and only creates a {@link String} when the region is not cached yet, so a
+ * hit costs no allocation at all. The table has a fixed number of slots and each slot holds a single string: a colliding token simply replaces
+ * the previous one. The interner therefore never retains more than its capacity, at the cost of occasionally returning an equal but distinct
+ * instance for tokens competing for the same slot. Unlike {@link String#intern()}, the strings are ordinary heap objects and become garbage
+ * with the interner.
+ */
+public final class StringInterner {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final AtomicReferenceArray<String> table;
+    private final int mask;
+
+    public StringInterner() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates an interner with at least the given number of slots, rounded up to a power of two.
+    public StringInterner(final @Range(from = 1, to = MAXIMUM_CAPACITY) int capacity) {
+        if (capacity <= 0 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be in [1, " + MAXIMUM_CAPACITY + "], but was " + capacity);
+        }
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        table = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    // Returns the canonical String with the same chars as the given char sequence.
+    public @NotNull String intern(final @NotNull CharSequence seq) {
+        return intern(seq, 0, seq.length());
+    }
+
+    // Returns the canonical String with the same chars as the region [startIndex, endIndex) of the given char sequence.
+    public @NotNull String intern(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                  final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + seq.length());
+        }
+        // Same value as String.hashCode for the same chars, so that it can be checked against the cached hash of the strings
+        final int hash = CharSequenceEquivalence.EXACT.hash(seq, startIndex, endIndex);
+        final int slot = spread(hash) & mask;
+        final String cached = table.get(slot);
+        if (cached != null && cached.hashCode() == hash && cached.length() == endIndex - startIndex
+            && CharSequenceEquivalence.EXACT.regionEquals(cached, 0, seq, startIndex, endIndex - startIndex)) {
+            return cached;
+        }
+        final String str = seq instanceof String ? ((String) seq).substring(startIndex, endIndex) : seq.subSequence(startIndex, endIndex).toString();
+        // Another thread may race on the same slot: whichever write lands last wins, and both callers still get a correct string
+        table.lazySet(slot, str);
+        return str;
+    }
+
+    // Returns the number of slots of this interner, which bounds the number of retained strings.
+    public @Range(from = 1, to = MAXIMUM_CAPACITY) int capacity() {
+        return table.length();
+    }
+
+    // Removes all cached strings.
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, null);
+        }
+    }
+
+    // String hashes of short tokens differ mostly in their low bits, fold the high bits in as HashMap does
+    private static int spread(final int hash) {
+        return hash ^ hash >>> 16;
+    }
+}
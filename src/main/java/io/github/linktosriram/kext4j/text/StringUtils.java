@@ -10,7 +10,8 @@ import io.github.linktosriram.kext4j.range.IntRange;
 import io.github.linktosriram.kext4j.sequence.DelimitedRangesSequence;
 import io.github.linktosriram.kext4j.sequence.Sequence;
 import io.github.linktosriram.kext4j.sequence.SequenceUtils;
-import io.github.linktosriram.kext4j.text.regex.Regex;
+import io.github.linktosriram.kext4j.text.regex.LinearRegex;
+import io.github.linktosriram.kext4j.text.regex.PatternCache;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
@@ -21,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.MathContext;
@@ -108,12 +110,19 @@ public final class StringUtils {
      */
     public static boolean all(final @NotNull CharSequence seq, final @NotNull Predicate<? super Character> predicate) {
         final int length = seq.length();
-        final Predicate<? super Character> negated = predicate.negate();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (negated.test(element)) {
-                return false;
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int start = 0; start < length; start += chunk.length) {
+                final int end = Math.min(start + chunk.length, length);
+                CharChunks.getChars(seq, start, end, chunk, 0);
+                for (int i = 0; i < end - start; i++) {
+                    if (!predicate.test(chunk[i])) {
+                        return false;
+                    }
+                }
             }
+        } finally {
+            CharChunks.release(chunk);
         }
         return true;
     }
@@ -136,14 +145,7 @@ public final class StringUtils {
      * @return {@code true} if at least one character in the {@link CharSequence} satisfies the given predicate, {@code false} otherwise
      */
     public static boolean any(final @NotNull CharSequence seq, final @NotNull Predicate<? super Character> predicate) {
-        final int length = seq.length();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (predicate.test(element)) {
-                return true;
-            }
-        }
-        return false;
+        return indexOfFirst(seq, predicate) >= 0;
     }
 
     /**
@@ -306,6 +308,33 @@ public final class StringUtils {
         return indexOf(seq, ch, ignoreCase) >= 0;
     }
 
+    public static boolean contentEquals(final @Nullable CharSequence first, final @Nullable CharSequence second) {
+        return contentEquals(first, second, false);
+    }
+
+    // Returns true if both char sequences have the same chars, whatever their types, optionally ignoring the case.
+    public static boolean contentEquals(final @Nullable CharSequence first, final @Nullable CharSequence second, final boolean ignoreCase) {
+        if (first == second) {
+            return true;
+        }
+        if (first == null || second == null || first.length() != second.length()) {
+            return false;
+        }
+        if (!ignoreCase) {
+            if (first instanceof AsciiString) {
+                return ((AsciiString) first).contentEquals(second);
+            }
+            if (second instanceof AsciiString) {
+                return ((AsciiString) second).contentEquals(first);
+            }
+            if (first instanceof String) {
+                return ((String) first).contentEquals(second);
+            }
+            return CharSequenceEquivalence.EXACT.regionEquals(first, 0, second, 0, first.length());
+        }
+        return CharSequenceEquivalence.IGNORE_CASE.regionEquals(first, 0, second, 0, first.length());
+    }
+
     /**
      * Returns the length of the {@link CharSequence}.
      *
@@ -326,11 +355,68 @@ public final class StringUtils {
     public static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final @NotNull Predicate<? super Character> predicate) {
         int count = 0;
         final int length = seq.length();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (predicate.test(element)) {
-                count++;
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int start = 0; start < length; start += chunk.length) {
+                final int end = Math.min(start + chunk.length, length);
+                CharChunks.getChars(seq, start, end, chunk, 0);
+                for (int i = 0; i < end - start; i++) {
+                    if (predicate.test(chunk[i])) {
+                        count++;
+                    }
+                }
             }
+        } finally {
+            CharChunks.release(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of occurrences of the given character in the {@link CharSequence}.
+     *
+     * @param seq the {@link CharSequence}
+     * @param ch  the character to count
+     * @return the number of occurrences of the given character in the {@link CharSequence}
+     */
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final char ch) {
+        return CharScanner.count(seq, ch, 0, seq.length());
+    }
+
+    /**
+     * Returns the number of non-overlapping occurrences of the given needle in the {@link CharSequence}.
+     *
+     * @param seq    the {@link CharSequence}
+     * @param needle the string to count
+     * @return the number of occurrences of the needle in the {@link CharSequence}
+     */
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int countOccurrences(final @NotNull CharSequence seq, final @NotNull String needle) {
+        return countOccurrences(seq, needle, false, false);
+    }
+
+    /**
+     * Returns the number of occurrences of the given needle in the {@link CharSequence}, without allocating per occurrence. The empty needle
+     * occurs at each of the {@code length + 1} indices of the {@link CharSequence}.
+     *
+     * @param seq         the {@link CharSequence}
+     * @param needle      the string to count
+     * @param overlapping whether an occurrence may start before the end of the previous one
+     * @param ignoreCase  whether to ignore the case of the characters
+     * @return the number of occurrences of the needle in the {@link CharSequence}
+     */
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int countOccurrences(final @NotNull CharSequence seq, final @NotNull String needle,
+                                                                                final boolean overlapping, final boolean ignoreCase) {
+        if (needle.isEmpty()) {
+            return seq.length() + 1;
+        }
+        if (needle.length() == 1 && !ignoreCase) {
+            return CharScanner.count(seq, needle.charAt(0), 0, seq.length());
+        }
+        final DelimiterMatcher matcher = DelimiterMatcher.of(singletonList(needle), ignoreCase);
+        final int step = overlapping ? 1 : needle.length();
+        int count = 0;
+        for (int index = matcher.indexIn(seq, 0); index >= 0; index = matcher.indexIn(seq, index + step)) {
+            count++;
         }
         return count;
     }
@@ -466,6 +552,18 @@ public final class StringUtils {
         return "";
     }
 
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int editDistance(final @NotNull CharSequence first, final @NotNull CharSequence second) {
+        return editDistance(first, second, false);
+    }
+
+    // Returns the Levenshtein distance between the two char sequences, the number of single char insertions, deletions and substitutions
+    // turning one into the other, optionally ignoring the case. Computed 64 chars of the shorter sequence at a time with bit-parallel
+    // operations, in O(n * ceil(m / 64)).
+    public static @Range(from = 0, to = Integer.MAX_VALUE) int editDistance(final @NotNull CharSequence first, final @NotNull CharSequence second,
+                                                                            final boolean ignoreCase) {
+        return ApproximateMatcher.distance(first, second, ignoreCase);
+    }
+
     /**
      * Returns a character at the given {@code index} or the result of calling the defaultValue {@link Function}if the {@code index} is out of
      * bounds of the {@link CharSequence}.
@@ -543,6 +641,8 @@ public final class StringUtils {
     public static boolean endsWith(final @NotNull CharSequence seq, final @NotNull CharSequence suffix, final boolean ignoreCase) {
         if (!ignoreCase && seq instanceof String && suffix instanceof String) {
             return ((String) seq).endsWith((String) suffix);
+        } else if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).endsWith(suffix);
         } else {
             final int length = seq.length();
             final int suffixLength = suffix.length();
@@ -611,15 +711,33 @@ public final class StringUtils {
     public static @NotNull <C extends Appendable> C filterTo(final @NotNull CharSequence seq, final @NotNull C destination,
                                                              final @NotNull Predicate<? super Character> predicate) {
         final int length = seq.length();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (predicate.test(element)) {
-                try {
-                    destination.append(element);
-                } catch (final IOException e) {
-                    throw new UncheckedIOException(e);
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int start = 0; start < length; start += chunk.length) {
+                final int end = Math.min(start + chunk.length, length);
+                CharChunks.getChars(seq, start, end, chunk, 0);
+                // The matching chars are moved to the front of the chunk, so that they can be appended at once
+                int matched = 0;
+                for (int i = 0; i < end - start; i++) {
+                    final char element = chunk[i];
+                    if (predicate.test(element)) {
+                        chunk[matched++] = element;
+                    }
+                }
+                if (destination instanceof StringBuilder) {
+                    ((StringBuilder) destination).append(chunk, 0, matched);
+                } else if (destination instanceof Writer) {
+                    ((Writer) destination).write(chunk, 0, matched);
+                } else {
+                    for (int i = 0; i < matched; i++) {
+                        destination.append(chunk[i]);
+                    }
                 }
             }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            CharChunks.release(chunk);
         }
         return destination;
     }
@@ -892,6 +1010,9 @@ public final class StringUtils {
     // Returns the index within this string of the first occurrence of the specified character, starting from the specified startIndex.
     public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull CharSequence seq, final char ch,
                                                                         final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex, final boolean ignoreCase) {
+        if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).indexOf(ch, startIndex);
+        }
         return ignoreCase || !(seq instanceof String) ?
             indexOfAny(seq, new char[]{ch}, startIndex, ignoreCase) :
             ((String) seq).indexOf(ch, startIndex);
@@ -913,6 +1034,9 @@ public final class StringUtils {
     // Returns the index within this char sequence of the first occurrence of the specified string, starting from the specified startIndex.
     public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOf(final @NotNull CharSequence seq, final @NotNull String str,
                                                                         final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex, final boolean ignoreCase) {
+        if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).indexOf(str, startIndex);
+        }
         return ignoreCase || !(seq instanceof String) ?
             indexOf(seq, str, startIndex, seq.length(), ignoreCase, false) :
             ((String) seq).indexOf(str, startIndex);
@@ -939,16 +1063,11 @@ public final class StringUtils {
             final char single = ArrayUtils.single(chars);
             return ((String) seq).indexOf(single, startIndex);
         }
-
-        final int start = coerceAtLeast(startIndex, 0);
-        final int lastIndex = lastIndex(seq);
-        for (int i = start; i <= lastIndex; i++) {
-            final char charAtIndex = seq.charAt(i);
-            if (ArrayUtils.any(chars, ch -> CharUtils.equals(ch, charAtIndex, ignoreCase))) {
-                return i;
-            }
+        if (!ignoreCase && chars.length == 1 && seq instanceof AsciiString) {
+            return ((AsciiString) seq).indexOf(chars[0], startIndex);
         }
-        return -1;
+
+        return CharScanner.indexOfAny(seq, chars, coerceAtLeast(startIndex, 0), seq.length(), ignoreCase);
     }
 
     public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull CharSequence seq, final @NotNull Collection<String> strings) {
@@ -974,14 +1093,36 @@ public final class StringUtils {
             .orElse(-1);
     }
 
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfApprox(final @NotNull CharSequence seq, final @NotNull String pattern,
+                                                                              final @Range(from = 0, to = Integer.MAX_VALUE) int maxEdits) {
+        return indexOfApprox(seq, pattern, maxEdits, false);
+    }
+
+    // Returns the start index of the first approximate occurrence of the pattern, which differs from it by at most maxEdits single char
+    // insertions, deletions and substitutions, or -1. Occurrences are ordered by their end; among those ending at the same index, the one with
+    // the fewest edits and then the longest one is returned. Runs in O(n * ceil(m / 64)) for a pattern of length m.
+    public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfApprox(final @NotNull CharSequence seq, final @NotNull String pattern,
+                                                                              final @Range(from = 0, to = Integer.MAX_VALUE) int maxEdits,
+                                                                              final boolean ignoreCase) {
+        return ApproximateMatcher.indexOf(seq, pattern, maxEdits, ignoreCase);
+    }
+
     // Returns index of the first character matching the given predicate, or -1 if the char sequence does not contain such character.
     public static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfFirst(final @NotNull CharSequence seq, final @NotNull Predicate<? super Character> predicate) {
         final int length = seq.length();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (predicate.test(element)) {
-                return i;
+        final char[] chunk = CharChunks.acquire();
+        try {
+            for (int start = 0; start < length; start += chunk.length) {
+                final int end = Math.min(start + chunk.length, length);
+                CharChunks.getChars(seq, start, end, chunk, 0);
+                for (int i = 0; i < end - start; i++) {
+                    if (predicate.test(chunk[i])) {
+                        return start + i;
+                    }
+                }
             }
+        } finally {
+            CharChunks.release(chunk);
         }
         return -1;
     }
@@ -997,9 +1138,37 @@ public final class StringUtils {
         return -1;
     }
 
+    public static @NotNull int[] indicesOf(final @NotNull CharSequence seq, final @NotNull String needle) {
+        return indicesOf(seq, needle, false, false);
+    }
+
+    // Returns the indices of all the occurrences of the given needle in ascending order, the empty needle occurring at every index from 0 to the
+    // length of the char sequence.
+    public static @NotNull int[] indicesOf(final @NotNull CharSequence seq, final @NotNull String needle, final boolean overlapping,
+                                           final boolean ignoreCase) {
+        if (needle.isEmpty()) {
+            final int[] indices = new int[seq.length() + 1];
+            for (int i = 0; i < indices.length; i++) {
+                indices[i] = i;
+            }
+            return indices;
+        }
+        final DelimiterMatcher matcher = DelimiterMatcher.of(singletonList(needle), ignoreCase);
+        final int step = overlapping ? 1 : needle.length();
+        int[] indices = new int[16];
+        int size = 0;
+        for (int index = matcher.indexIn(seq, 0); index >= 0; index = matcher.indexIn(seq, index + step)) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size + (size >> 1));
+            }
+            indices[size++] = index;
+        }
+        return Arrays.copyOf(indices, size);
+    }
+
     // Returns true if this string is empty or consists solely of whitespace characters.
     public static boolean isBlank(final @NotNull CharSequence seq) {
-        return isEmpty(seq) || CollectionUtils.all(indices(seq), i -> isWhitespace(seq.charAt(i)));
+        return CharScanner.indexOfNonWhitespace(seq, 0, seq.length()) < 0;
     }
 
     // Returns true if this char sequence is empty (contains no characters).
@@ -1083,6 +1252,9 @@ public final class StringUtils {
     // Returns the index within this char sequence of the last occurrence of the specified character, starting from the specified startIndex.
     public static @Range(from = -1, to = Integer.MAX_VALUE) int lastIndexOf(final @NotNull CharSequence seq, final char ch,
                                                                             final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex, final boolean ignoreCase) {
+        if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).lastIndexOf(ch, startIndex);
+        }
         return ignoreCase || !(seq instanceof String) ?
             lastIndexOfAny(seq, new char[]{ch}, startIndex, ignoreCase) :
             ((String) seq).lastIndexOf(ch, startIndex);
@@ -1189,7 +1361,16 @@ public final class StringUtils {
     // Splits this char sequence to a sequence of lines delimited by any of the following character sequences: CRLF, LF or CR.
     // The lines returned do not include terminating line separators.
     public static @NotNull Sequence<String> lineSequence(final @NotNull CharSequence seq) {
-        return splitToSequence(seq, Arrays.asList("\r\n", "\n", "\r"));
+        final Sequence<IntRange> ranges = new DelimitedRangesSequence(seq, 0, 0, (charSeq, currentIndex) -> {
+            final int length = charSeq.length();
+            final int index = CharScanner.indexOfLineSeparator(charSeq, currentIndex, length);
+            if (index < 0) {
+                return empty();
+            }
+            final boolean crlf = charSeq.charAt(index) == '\r' && index + 1 < length && charSeq.charAt(index + 1) == '\n';
+            return of(new Pair<>(index, crlf ? 2 : 1));
+        });
+        return SequenceUtils.map(ranges, range -> substring(seq, range));
     }
 
     // Returns a list containing the results of applying the given transform function to each character in the original char sequence.
@@ -1358,14 +1539,7 @@ public final class StringUtils {
 
     // Returns true if no characters match the given predicate.
     public static boolean none(final @NotNull CharSequence seq, final Predicate<? super Character> predicate) {
-        final int length = seq.length();
-        for (int i = 0; i < length; i++) {
-            final char element = seq.charAt(i);
-            if (predicate.test(element)) {
-                return false;
-            }
-        }
-        return true;
+        return indexOfFirst(seq, predicate) < 0;
     }
 
     // Performs the given action on each character and returns the char sequence itself afterwards.
@@ -1596,7 +1770,9 @@ public final class StringUtils {
     @Contract(pure = true)
     public static boolean regionMatches(final @NotNull String first, final int firstOffset, final @NotNull String second, final int secondOffset,
                                         final int length, final boolean ignoreCase) {
-        return ignoreCase ? first.regionMatches(true, firstOffset, second, secondOffset, length) : first.regionMatches(firstOffset, second, secondOffset, length);
+        return ignoreCase ?
+            CharUtils.regionMatchesIgnoreCase(first, firstOffset, second, secondOffset, length) :
+            first.regionMatches(firstOffset, second, secondOffset, length);
     }
 
     // If this char sequence starts with the given prefix, returns a new char sequence with the prefix removed. Otherwise, returns a new char sequence
@@ -1877,7 +2053,9 @@ public final class StringUtils {
 
     // Returns a char sequence with characters in reversed order.
     public static @NotNull CharSequence reversed(final @NotNull CharSequence seq) {
-        return new StringBuilder(seq).reverse();
+        final StringBuilder builder = new StringBuilder(seq.length());
+        CharChunks.appendTo(builder, seq);
+        return builder.reverse();
     }
 
     // Returns a string with characters in reversed order.
@@ -1999,6 +2177,15 @@ public final class StringUtils {
         return CollectionUtils.map(iterable, range -> substring(seq, range));
     }
 
+    // Splits this char sequence around occurrences of the specified delimiters, taking each token from the given interner so that repeated
+    // tokens share a single String instance.
+    public static @NotNull List<String> split(final @NotNull CharSequence seq, final @NotNull Collection<String> delimiters, final boolean ignoreCase,
+                                              final @Range(from = 0, to = Integer.MAX_VALUE) int limit, final @NotNull StringInterner interner) {
+        final Sequence<IntRange> sequence = rangesDelimitedBy(seq, delimiters, ignoreCase, limit);
+        final Iterable<IntRange> iterable = SequenceUtils.asIterable(sequence);
+        return CollectionUtils.map(iterable, range -> interner.intern(seq, range.getStart(), range.getEndInclusive() + 1));
+    }
+
     public static @NotNull List<String> split(final @NotNull CharSequence seq, final @NotNull char[] delimiters) {
         return split(seq, delimiters, false, 0);
     }
@@ -2023,6 +2210,15 @@ public final class StringUtils {
         return CollectionUtils.map(iterable, range -> substring(seq, range));
     }
 
+    // Splits this char sequence around occurrences of the specified delimiters, taking each token from the given interner so that repeated
+    // tokens share a single String instance.
+    public static @NotNull List<String> split(final @NotNull CharSequence seq, final @NotNull char[] delimiters, final boolean ignoreCase,
+                                              final @Range(from = 0, to = Integer.MAX_VALUE) int limit, final @NotNull StringInterner interner) {
+        final Sequence<IntRange> sequence = rangesDelimitedBy(seq, delimiters, ignoreCase, limit);
+        final Iterable<IntRange> iterable = SequenceUtils.asIterable(sequence);
+        return CollectionUtils.map(iterable, range -> interner.intern(seq, range.getStart(), range.getEndInclusive() + 1));
+    }
+
     public static @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence seq, final @NotNull Collection<String> delimiters) {
         return splitToSequence(seq, delimiters, false, 0);
     }
@@ -2042,6 +2238,14 @@ public final class StringUtils {
         return SequenceUtils.map(rangesDelimitedBy(seq, delimiters), range -> substring(seq, range));
     }
 
+    // Lazy variant of split taking each token from the given interner.
+    public static @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence seq, final @NotNull Collection<String> delimiters,
+                                                            final boolean ignoreCase, final @Range(from = 0, to = Integer.MAX_VALUE) int limit,
+                                                            final @NotNull StringInterner interner) {
+        return SequenceUtils.map(rangesDelimitedBy(seq, delimiters, ignoreCase, limit),
+            range -> interner.intern(seq, range.getStart(), range.getEndInclusive() + 1));
+    }
+
     public static @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence seq, final @NotNull char[] delimiters) {
         return splitToSequence(seq, delimiters, false, 0);
     }
@@ -2060,6 +2264,14 @@ public final class StringUtils {
         return SequenceUtils.map(rangesDelimitedBy(seq, delimiters, ignoreCase, limit), range -> substring(seq, range));
     }
 
+    // Lazy variant of split taking each token from the given interner.
+    public static @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence seq, final @NotNull char[] delimiters, final boolean ignoreCase,
+                                                            final @Range(from = 0, to = Integer.MAX_VALUE) int limit,
+                                                            final @NotNull StringInterner interner) {
+        return SequenceUtils.map(rangesDelimitedBy(seq, delimiters, ignoreCase, limit),
+            range -> interner.intern(seq, range.getStart(), range.getEndInclusive() + 1));
+    }
+
     public static boolean startsWith(final @NotNull String str, final @NotNull String prefix) {
         return startsWith(str, prefix, false);
     }
@@ -2090,6 +2302,9 @@ public final class StringUtils {
     }
 
     public static boolean startsWith(final @NotNull CharSequence seq, final @NotNull CharSequence prefix, final boolean ignoreCase) {
+        if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).startsWith(prefix, 0);
+        }
         return !ignoreCase && seq instanceof String && prefix instanceof String ?
             ((String) seq).startsWith((String) prefix) :
             regionMatchesImpl(seq, 0, prefix, 0, prefix.length(), ignoreCase);
@@ -2102,6 +2317,9 @@ public final class StringUtils {
 
     public static boolean startsWith(final @NotNull CharSequence seq, final @NotNull CharSequence prefix,
                                      final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex, final boolean ignoreCase) {
+        if (!ignoreCase && seq instanceof AsciiString) {
+            return ((AsciiString) seq).startsWith(prefix, startIndex);
+        }
         return !ignoreCase && seq instanceof String && prefix instanceof String ?
             ((String) seq).startsWith((String) prefix, startIndex) :
             regionMatchesImpl(seq, startIndex, prefix, 0, prefix.length(), ignoreCase);
@@ -2528,7 +2746,7 @@ public final class StringUtils {
     }
 
     public static @NotNull Pattern toPattern(final @NotNull String str, final int flags) {
-        return Pattern.compile(str, flags);
+        return PatternCache.get(str, flags);
     }
 
     public static @NotNull Set<Character> toSet(final @NotNull CharSequence seq) {
@@ -2759,6 +2977,9 @@ public final class StringUtils {
 
     // Private Stuff
 
+    // The number of leading chars of a region compared with charAt, before filling the chunk buffers pays off
+    private static final int MIN_CHUNKED_REGION_LENGTH = 16;
+
     // Implementation of regionMatches for CharSequences.
     private static boolean regionMatchesImpl(final @NotNull CharSequence first, final int firstOffset, final @NotNull CharSequence second, final int secondOffset,
                                              final int length) {
@@ -2775,11 +2996,45 @@ public final class StringUtils {
             return false;
         }
 
-        for (int i = 0; i < length; i++) {
+        if (first instanceof String && second instanceof String) {
+            return ignoreCase ?
+                CharUtils.regionMatchesIgnoreCase((String) first, firstOffset, (String) second, secondOffset, length) :
+                ((String) first).regionMatches(firstOffset, (String) second, secondOffset, length);
+        }
+        // Most regions compared by the search loops differ within the first chars, so these are compared in place, and the rest is copied in
+        // chunks only once they match
+        final int head = Math.min(length, MIN_CHUNKED_REGION_LENGTH);
+        for (int i = 0; i < head; i++) {
             if (!CharUtils.equals(first.charAt(firstOffset + i), second.charAt(secondOffset + i), ignoreCase)) {
                 return false;
             }
         }
+        if (head == length) {
+            return true;
+        }
+        // The chars of the first region are copied to the front half of the chunk buffer, and those of the second to its back half
+        final char[] chunk = CharChunks.acquire();
+        final int half = chunk.length / 2;
+        try {
+            for (int start = head; start < length; start += half) {
+                final int count = Math.min(half, length - start);
+                CharChunks.getChars(first, firstOffset + start, firstOffset + start + count, chunk, 0);
+                CharChunks.getChars(second, secondOffset + start, secondOffset + start + count, chunk, half);
+                if (ignoreCase) {
+                    if (!CharUtils.regionMatchesIgnoreCase(chunk, 0, chunk, half, count)) {
+                        return false;
+                    }
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        if (chunk[i] != chunk[half + i]) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        } finally {
+            CharChunks.release(chunk);
+        }
         return true;
     }
 
@@ -2968,7 +3223,7 @@ public final class StringUtils {
      * Recommended floating point number validation RegEx from the javadoc of `java.lang.Double.valueOf(String)`
      */
     private static class ScreenFloatValueRegEx {
-        private static final Regex value;
+        private static final LinearRegex value;
 
         static {
             @NonNls final String Digits = "(\\p{Digit}+)";
@@ -2980,7 +3235,7 @@ public final class StringUtils {
                 "(\\.(" + Digits + ")(" + Exp + ")?)|" +
                 "((" + HexString + ")[pP][+-]?" + Digits + ")";
             final String fpRegex = "[\\x00-\\x20]*[+-]?(NaN|Infinity|((" + Number + ")[fFdD]?))[\\x00-\\x20]*";
-            value = new Regex(fpRegex);
+            value = new LinearRegex(fpRegex);
         }
     }
 
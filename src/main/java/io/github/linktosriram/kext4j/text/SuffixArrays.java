@@ -0,0 +1,179 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+// Builds suffix arrays with the SA-IS algorithm (Nong, Zhang and Chan), in time and extra memory linear in the length of the text.
+// Suffixes are classified as S (smaller than the next suffix) or L (larger). The leftmost S suffixes of each S run, the LMS suffixes, are sorted
+// by induction from the buckets of their first chars, named, and sorted recursively when two names collide; the whole array is then induced
+// from them. Texts are first mapped to the alphabet of the chars they use, which keeps the buckets small.
+final class SuffixArrays {
+
+    // Shorter texts are sorted by comparing their suffixes directly
+    private static final int NAIVE_THRESHOLD = 10;
+
+    @Contract(value = " -> fail", pure = true)
+    private SuffixArrays() {
+        throw new AssertionError();
+    }
+
+    // Returns the start indices of the suffixes of the given text, in lexicographic order of the suffixes.
+    static @NotNull int[] build(final @NotNull CharSequence text) {
+        final int length = text.length();
+        final boolean[] used = new boolean[Character.MAX_VALUE + 1];
+        for (int i = 0; i < length; i++) {
+            used[text.charAt(i)] = true;
+        }
+        final int[] ranks = new int[Character.MAX_VALUE + 1];
+        int upper = -1;
+        for (int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+            if (used[ch]) {
+                ranks[ch] = ++upper;
+            }
+        }
+        final int[] s = new int[length];
+        for (int i = 0; i < length; i++) {
+            s[i] = ranks[text.charAt(i)];
+        }
+        return saIs(s, Math.max(upper, 0));
+    }
+
+    // Returns the suffix array of s, whose values are in [0, upper].
+    private static @NotNull int[] saIs(final @NotNull int[] s, final int upper) {
+        final int n = s.length;
+        if (n < NAIVE_THRESHOLD) {
+            return naive(s);
+        }
+        final int[] sa = new int[n];
+        final boolean[] ls = new boolean[n];
+        for (int i = n - 2; i >= 0; i--) {
+            ls[i] = s[i] == s[i + 1] ? ls[i + 1] : s[i] < s[i + 1];
+        }
+        // Start of the S part of each bucket, and start of each bucket
+        final int[] sumS = new int[upper + 1];
+        final int[] sumL = new int[upper + 1];
+        for (int i = 0; i < n; i++) {
+            if (!ls[i]) {
+                sumS[s[i]]++;
+            } else {
+                // An S char is smaller than a later one, so it is never the largest
+                sumL[s[i] + 1]++;
+            }
+        }
+        for (int i = 0; i <= upper; i++) {
+            sumS[i] += sumL[i];
+            if (i < upper) {
+                sumL[i + 1] += sumS[i];
+            }
+        }
+        final int[] lmsMap = new int[n + 1];
+        Arrays.fill(lmsMap, -1);
+        int m = 0;
+        for (int i = 1; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lmsMap[i] = m++;
+            }
+        }
+        final int[] lms = new int[m];
+        for (int i = 1, j = 0; i < n; i++) {
+            if (!ls[i - 1] && ls[i]) {
+                lms[j++] = i;
+            }
+        }
+        final int[] buffer = new int[upper + 1];
+        induce(s, upper, sa, ls, sumS, sumL, buffer, lms);
+        if (m > 0) {
+            final int[] sortedLms = new int[m];
+            for (int i = 0, j = 0; i < n; i++) {
+                if (lmsMap[sa[i]] != -1) {
+                    sortedLms[j++] = sa[i];
+                }
+            }
+            // Names the LMS substrings by their rank, equal substrings sharing a name
+            final int[] recS = new int[m];
+            int recUpper = 0;
+            recS[lmsMap[sortedLms[0]]] = 0;
+            for (int i = 1; i < m; i++) {
+                int left = sortedLms[i - 1];
+                int right = sortedLms[i];
+                final int leftEnd = lmsMap[left] + 1 < m ? lms[lmsMap[left] + 1] : n;
+                final int rightEnd = lmsMap[right] + 1 < m ? lms[lmsMap[right] + 1] : n;
+                boolean same = true;
+                if (leftEnd - left != rightEnd - right) {
+                    same = false;
+                } else {
+                    while (left < leftEnd && s[left] == s[right]) {
+                        left++;
+                        right++;
+                    }
+                    if (left == n || s[left] != s[right]) {
+                        same = false;
+                    }
+                }
+                if (!same) {
+                    recUpper++;
+                }
+                recS[lmsMap[sortedLms[i]]] = recUpper;
+            }
+            final int[] recSa = saIs(recS, recUpper);
+            for (int i = 0; i < m; i++) {
+                sortedLms[i] = lms[recSa[i]];
+            }
+            induce(s, upper, sa, ls, sumS, sumL, buffer, sortedLms);
+        }
+        return sa;
+    }
+
+    // Places the given LMS suffixes at the end of their buckets, then induces the L suffixes left to right and the S suffixes right to left.
+    private static void induce(final @NotNull int[] s, final int upper, final @NotNull int[] sa, final @NotNull boolean[] ls, final @NotNull int[] sumS,
+                               final @NotNull int[] sumL, final @NotNull int[] buffer, final @NotNull int[] lms) {
+        final int n = s.length;
+        Arrays.fill(sa, -1);
+        System.arraycopy(sumS, 0, buffer, 0, upper + 1);
+        for (final int index : lms) {
+            sa[buffer[s[index]]++] = index;
+        }
+        System.arraycopy(sumL, 0, buffer, 0, upper + 1);
+        sa[buffer[s[n - 1]]++] = n - 1;
+        for (int i = 0; i < n; i++) {
+            final int index = sa[i];
+            if (index >= 1 && !ls[index - 1]) {
+                sa[buffer[s[index - 1]]++] = index - 1;
+            }
+        }
+        System.arraycopy(sumL, 0, buffer, 0, upper + 1);
+        for (int i = n - 1; i >= 0; i--) {
+            final int index = sa[i];
+            if (index >= 1 && ls[index - 1]) {
+                sa[--buffer[s[index - 1] + 1]] = index - 1;
+            }
+        }
+    }
+
+    private static @NotNull int[] naive(final @NotNull int[] s) {
+        final Integer[] suffixes = new Integer[s.length];
+        for (int i = 0; i < s.length; i++) {
+            suffixes[i] = i;
+        }
+        Arrays.sort(suffixes, (first, second) -> {
+            int i = first;
+            int j = second;
+            while (i < s.length && j < s.length) {
+                if (s[i] != s[j]) {
+                    return Integer.compare(s[i], s[j]);
+                }
+                i++;
+                j++;
+            }
+            // The shorter suffix is a prefix of the longer one
+            return Integer.compare(j, i);
+        });
+        final int[] sa = new int[s.length];
+        for (int i = 0; i < s.length; i++) {
+            sa[i] = suffixes[i];
+        }
+        return sa;
+    }
+}
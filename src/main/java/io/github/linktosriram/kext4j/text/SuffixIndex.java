@@ -0,0 +1,107 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable index of suffixes, answering which of them a char sequence ends with in a single walk of a compressed trie, instead of one
+ * {@link StringUtils#endsWith} call per suffix.
+ * <p>
+ * Suffixes are identified by their index in the collection the index was built from. When several of them are equal (ignoring the case in
+ * ignoreCase mode), the first one shadows the others.
+ * Queries accept any {@link CharSequence} region, the suffixes being matched at the end of the region, reading it backward.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class SuffixIndex {
+
+    private final String[] suffixes;
+    private final boolean ignoreCase;
+    private final PackedTrie trie;
+
+    private SuffixIndex(final @NotNull Collection<String> suffixes, final boolean ignoreCase) {
+        this.suffixes = suffixes.toArray(new String[0]);
+        this.ignoreCase = ignoreCase;
+        this.trie = new PackedTrie(Arrays.asList(this.suffixes), ignoreCase, true);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull SuffixIndex of(final @NotNull String... suffixes) {
+        return new SuffixIndex(Arrays.asList(suffixes), false);
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull SuffixIndex of(final @NotNull Collection<String> suffixes) {
+        return new SuffixIndex(suffixes, false);
+    }
+
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull SuffixIndex of(final @NotNull Collection<String> suffixes, final boolean ignoreCase) {
+        return new SuffixIndex(suffixes, ignoreCase);
+    }
+
+    public int size() {
+        return suffixes.length;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    // Returns the suffix at the given index.
+    public @NotNull String get(final @Range(from = 0, to = Integer.MAX_VALUE) int index) {
+        return suffixes[index];
+    }
+
+    // Indicates whether the given char sequence ends with any of the suffixes.
+    public boolean matches(final @NotNull CharSequence seq) {
+        return trie.longest(seq, 0, seq.length()) >= 0;
+    }
+
+    public @Range(from = -1, to = Integer.MAX_VALUE) int longestMatch(final @NotNull CharSequence seq) {
+        return trie.longest(seq, 0, seq.length());
+    }
+
+    // Returns the index of the longest suffix the region [startIndex, endIndex) of the given char sequence ends with, or -1 if there is none.
+    public @Range(from = -1, to = Integer.MAX_VALUE) int longestMatch(final @NotNull CharSequence seq,
+                                                                     final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                                                     final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        checkBounds(seq, startIndex, endIndex);
+        return trie.longest(seq, startIndex, endIndex);
+    }
+
+    public @NotNull int[] allMatches(final @NotNull CharSequence seq) {
+        return trie.all(seq, 0, seq.length());
+    }
+
+    // Returns the indices of all the suffixes the region [startIndex, endIndex) of the given char sequence ends with, shortest first.
+    public @NotNull int[] allMatches(final @NotNull CharSequence seq, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex,
+                                     final @Range(from = 0, to = Integer.MAX_VALUE) int endIndex) {
+        checkBounds(seq, startIndex, endIndex);
+        return trie.all(seq, startIndex, endIndex);
+    }
+
+    // Returns the longest suffix the given char sequence ends with, as given to this index, or null if there is none.
+    public @Nullable String longestSuffix(final @NotNull CharSequence seq) {
+        final int index = trie.longest(seq, 0, seq.length());
+        return index < 0 ? null : suffixes[index];
+    }
+
+    // Returns the given char sequence without the longest suffix it ends with, or as is if there is none.
+    public @NotNull String removeLongestSuffix(final @NotNull CharSequence seq) {
+        final int index = trie.longest(seq, 0, seq.length());
+        final int length = index < 0 ? 0 : suffixes[index].length();
+        return seq.subSequence(0, seq.length() - length).toString();
+    }
+
+    private static void checkBounds(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        if (startIndex < 0 || startIndex > endIndex || endIndex > seq.length()) {
+            throw new IndexOutOfBoundsException("startIndex: " + startIndex + ", endIndex: " + endIndex + ", length: " + seq.length());
+        }
+    }
+}
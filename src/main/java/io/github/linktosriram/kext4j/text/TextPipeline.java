@@ -0,0 +1,764 @@
+package io.github.linktosriram.kext4j.text;
+
+import io.github.linktosriram.kext4j.Preconditions;
+import io.github.linktosriram.kext4j.function.CharPredicate;
+import io.github.linktosriram.kext4j.function.CharUnaryOperator;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable, thread-safe chain of text transformations, configured once and run over each input in a single pass.
+ * <p>
+ * Chaining {@link StringUtils#trim}, {@link StringUtils#filter}, {@link StringUtils#removePrefix} and the like creates an intermediate string
+ * per step. A {@code TextPipeline} fuses its steps instead: the leading steps which only cut chars off either end of the input, such as
+ * {@link #trim()}, {@link #drop(int)} or {@link #removePrefix(CharSequence)}, narrow the range of the input to read; every following step then
+ * processes the chars one by one, passing them down the chain into a single output buffer sized to that range, as no step adds chars.
+ * <pre>{@code
+ * private static final TextPipeline NORMALIZE = TextPipeline.create().trim().collapseWhitespace().lowercase();
+ * ...
+ * String key = NORMALIZE.apply(field);
+ * }</pre>
+ * Each step applies to the output of the previous ones, with the semantics of the {@link StringUtils} function of the same name. Case
+ * conversions map each char on its own, as {@link Character#toLowerCase(char)} does.
+ */
+public final class TextPipeline {
+
+    private static final TextPipeline IDENTITY = new TextPipeline(new Stage[0]);
+
+    private final Stage[] stages;
+    // Number of leading stages applied by narrowing the range of the input
+    private final int boundaryStages;
+
+    private TextPipeline(final @NotNull Stage[] stages) {
+        this.stages = stages;
+        int boundaryStages = 0;
+        while (boundaryStages < stages.length && stages[boundaryStages] instanceof Boundary) {
+            boundaryStages++;
+        }
+        this.boundaryStages = boundaryStages;
+    }
+
+    // Returns the empty pipeline, which copies its input.
+    @Contract(pure = true)
+    public static @NotNull TextPipeline create() {
+        return IDENTITY;
+    }
+
+    // Returns a pipeline also removing leading and trailing whitespace.
+    @Contract(pure = true)
+    public @NotNull TextPipeline trim() {
+        return trim(Character::isWhitespace);
+    }
+
+    // Returns a pipeline also removing leading and trailing chars matching the predicate.
+    @Contract(pure = true)
+    public @NotNull TextPipeline trim(final @NotNull CharPredicate predicate) {
+        return then(new TrimStart(predicate)).then(new TrimEnd(predicate));
+    }
+
+    @Contract(pure = true)
+    public @NotNull TextPipeline trimStart() {
+        return trimStart(Character::isWhitespace);
+    }
+
+    // Returns a pipeline also removing leading chars matching the predicate.
+    @Contract(pure = true)
+    public @NotNull TextPipeline trimStart(final @NotNull CharPredicate predicate) {
+        return then(new TrimStart(predicate));
+    }
+
+    @Contract(pure = true)
+    public @NotNull TextPipeline trimEnd() {
+        return trimEnd(Character::isWhitespace);
+    }
+
+    // Returns a pipeline also removing trailing chars matching the predicate.
+    @Contract(pure = true)
+    public @NotNull TextPipeline trimEnd(final @NotNull CharPredicate predicate) {
+        return then(new TrimEnd(predicate));
+    }
+
+    // Returns a pipeline also removing the first n chars.
+    @Contract(pure = true)
+    public @NotNull TextPipeline drop(final @Range(from = 0, to = Integer.MAX_VALUE) int n) {
+        Preconditions.require(n >= 0, () -> "Requested character count " + n + " is less than zero.");
+        return then(new Drop(n));
+    }
+
+    // Returns a pipeline also removing the last n chars.
+    @Contract(pure = true)
+    public @NotNull TextPipeline dropLast(final @Range(from = 0, to = Integer.MAX_VALUE) int n) {
+        Preconditions.require(n >= 0, () -> "Requested character count " + n + " is less than zero.");
+        return then(new DropLast(n));
+    }
+
+    // Returns a pipeline also keeping only the first n chars.
+    @Contract(pure = true)
+    public @NotNull TextPipeline take(final @Range(from = 0, to = Integer.MAX_VALUE) int n) {
+        Preconditions.require(n >= 0, () -> "Requested character count " + n + " is less than zero.");
+        return then(new Take(n));
+    }
+
+    // Returns a pipeline also keeping only the last n chars.
+    @Contract(pure = true)
+    public @NotNull TextPipeline takeLast(final @Range(from = 0, to = Integer.MAX_VALUE) int n) {
+        Preconditions.require(n >= 0, () -> "Requested character count " + n + " is less than zero.");
+        return then(new TakeLast(n));
+    }
+
+    // Returns a pipeline also removing the given prefix, when the text starts with it. Removing an empty prefix leaves the text unchanged.
+    @Contract(pure = true)
+    public @NotNull TextPipeline removePrefix(final @NotNull CharSequence prefix) {
+        if (prefix.length() == 0) {
+            return this;
+        }
+        return then(new RemovePrefix(prefix.toString()));
+    }
+
+    // Returns a pipeline also removing the given suffix, when the text ends with it. Removing an empty suffix leaves the text unchanged.
+    @Contract(pure = true)
+    public @NotNull TextPipeline removeSuffix(final @NotNull CharSequence suffix) {
+        if (suffix.length() == 0) {
+            return this;
+        }
+        return then(new RemoveSuffix(suffix.toString()));
+    }
+
+    // Returns a pipeline also keeping only the chars matching the predicate.
+    @Contract(pure = true)
+    public @NotNull TextPipeline filter(final @NotNull CharPredicate predicate) {
+        return then(new Filter(predicate));
+    }
+
+    // Returns a pipeline also removing the chars matching the predicate.
+    @Contract(pure = true)
+    public @NotNull TextPipeline filterNot(final @NotNull CharPredicate predicate) {
+        return then(new Filter(predicate.negate()));
+    }
+
+    // Returns a pipeline also replacing each char by the result of the given operator.
+    @Contract(pure = true)
+    public @NotNull TextPipeline map(final @NotNull CharUnaryOperator operator) {
+        return then(new MapChars(operator));
+    }
+
+    @Contract(pure = true)
+    public @NotNull TextPipeline lowercase() {
+        return map(Character::toLowerCase);
+    }
+
+    @Contract(pure = true)
+    public @NotNull TextPipeline uppercase() {
+        return map(Character::toUpperCase);
+    }
+
+    // Returns a pipeline also replacing each run of whitespace by a single space.
+    @Contract(pure = true)
+    public @NotNull TextPipeline collapseWhitespace() {
+        return then(new Collapse(Character::isWhitespace, ' '));
+    }
+
+    // Runs the pipeline over the given char sequence.
+    public @NotNull String apply(final @NotNull CharSequence seq) {
+        final long range = narrow(seq);
+        final int startIndex = (int) (range >>> 32);
+        final int endIndex = (int) range;
+        if (boundaryStages == stages.length) {
+            return seq.subSequence(startIndex, endIndex).toString();
+        }
+        final Sink sink = run(seq, startIndex, endIndex);
+        return new String(sink.chars, 0, sink.size);
+    }
+
+    // Runs the pipeline over the given char sequence, appending its output to the given appendable.
+    @Contract("_, _ -> param2")
+    public @NotNull <A extends Appendable> A applyTo(final @NotNull CharSequence seq, final @NotNull A appendable) {
+        final long range = narrow(seq);
+        final int startIndex = (int) (range >>> 32);
+        final int endIndex = (int) range;
+        try {
+            if (boundaryStages == stages.length) {
+                appendable.append(seq, startIndex, endIndex);
+                return appendable;
+            }
+            final Sink sink = run(seq, startIndex, endIndex);
+            if (appendable instanceof StringBuilder) {
+                ((StringBuilder) appendable).append(sink.chars, 0, sink.size);
+            } else if (appendable instanceof Writer) {
+                ((Writer) appendable).write(sink.chars, 0, sink.size);
+            } else {
+                appendable.append(CharBuffer.wrap(sink.chars, 0, sink.size));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return appendable;
+    }
+
+    private @NotNull TextPipeline then(final @NotNull Stage stage) {
+        final Stage[] stages = Arrays.copyOf(this.stages, this.stages.length + 1);
+        stages[this.stages.length] = stage;
+        return new TextPipeline(stages);
+    }
+
+    // Applies the leading boundary stages, returning the range of the input left to process, its start index in the high half.
+    private long narrow(final @NotNull CharSequence seq) {
+        int startIndex = 0;
+        int endIndex = seq.length();
+        for (int i = 0; i < boundaryStages; i++) {
+            final Boundary stage = (Boundary) stages[i];
+            if (stage.fromStart) {
+                startIndex = stage.narrow(seq, startIndex, endIndex);
+            } else {
+                endIndex = stage.narrow(seq, startIndex, endIndex);
+            }
+        }
+        return (long) startIndex << 32 | endIndex;
+    }
+
+    private @NotNull Sink run(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final Sink sink = new Sink(endIndex - startIndex);
+        Processor head = sink;
+        for (int i = stages.length - 1; i >= boundaryStages; i--) {
+            head = stages[i].processor(head);
+        }
+        if (seq instanceof String) {
+            final String str = (String) seq;
+            for (int i = startIndex; i < endIndex; i++) {
+                if (!head.accept(str.charAt(i))) {
+                    break;
+                }
+            }
+        } else {
+            for (int i = startIndex; i < endIndex; i++) {
+                if (!head.accept(seq.charAt(i))) {
+                    break;
+                }
+            }
+        }
+        head.finish();
+        return sink;
+    }
+
+    private abstract static class Stage {
+
+        // Returns a processor for one run of the stage, passing its output to the given downstream processor.
+        abstract @NotNull Processor processor(@NotNull Processor downstream);
+    }
+
+    // A stage which only removes chars from one end of its input, and so can be applied to the range of the input when it comes first.
+    private abstract static class Boundary extends Stage {
+
+        final boolean fromStart;
+
+        Boundary(final boolean fromStart) {
+            this.fromStart = fromStart;
+        }
+
+        // Returns the new start index of the range when fromStart is set, its new end index otherwise.
+        abstract int narrow(@NotNull CharSequence seq, int startIndex, int endIndex);
+    }
+
+    // The state of a stage during one run.
+    private abstract static class Processor {
+
+        // Processes the next char, returning false if no further char can change the output.
+        abstract boolean accept(char ch);
+
+        // Signals the end of the input.
+        abstract void finish();
+    }
+
+    private static final class Sink extends Processor {
+
+        final char[] chars;
+        int size;
+
+        Sink(final int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        @Override
+        boolean accept(final char ch) {
+            chars[size++] = ch;
+            return true;
+        }
+
+        @Override
+        void finish() {
+        }
+    }
+
+    private static final class TrimStart extends Boundary {
+
+        private final CharPredicate predicate;
+
+        TrimStart(final @NotNull CharPredicate predicate) {
+            super(true);
+            this.predicate = predicate;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, int startIndex, final int endIndex) {
+            while (startIndex < endIndex && predicate.test(seq.charAt(startIndex))) {
+                startIndex++;
+            }
+            return startIndex;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                private boolean trimming = true;
+
+                @Override
+                boolean accept(final char ch) {
+                    if (trimming && predicate.test(ch)) {
+                        return true;
+                    }
+                    trimming = false;
+                    return downstream.accept(ch);
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class TrimEnd extends Boundary {
+
+        private final CharPredicate predicate;
+
+        TrimEnd(final @NotNull CharPredicate predicate) {
+            super(false);
+            this.predicate = predicate;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, int endIndex) {
+            while (endIndex > startIndex && predicate.test(seq.charAt(endIndex - 1))) {
+                endIndex--;
+            }
+            return endIndex;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                // Chars matching the predicate, held back until a char which does not shows they are not trailing
+                private final StringBuilder pending = new StringBuilder();
+
+                @Override
+                boolean accept(final char ch) {
+                    if (predicate.test(ch)) {
+                        pending.append(ch);
+                        return true;
+                    }
+                    for (int i = 0; i < pending.length(); i++) {
+                        if (!downstream.accept(pending.charAt(i))) {
+                            return false;
+                        }
+                    }
+                    pending.setLength(0);
+                    return downstream.accept(ch);
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class Drop extends Boundary {
+
+        private final int n;
+
+        Drop(final int n) {
+            super(true);
+            this.n = n;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            return endIndex - startIndex <= n ? endIndex : startIndex + n;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                private int dropped;
+
+                @Override
+                boolean accept(final char ch) {
+                    if (dropped < n) {
+                        dropped++;
+                        return true;
+                    }
+                    return downstream.accept(ch);
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class Take extends Boundary {
+
+        private final int n;
+
+        Take(final int n) {
+            super(false);
+            this.n = n;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            return endIndex - startIndex <= n ? endIndex : startIndex + n;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                private int taken;
+
+                @Override
+                boolean accept(final char ch) {
+                    if (taken == n) {
+                        return false;
+                    }
+                    taken++;
+                    return downstream.accept(ch) && taken < n;
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class DropLast extends Boundary {
+
+        private final int n;
+
+        DropLast(final int n) {
+            super(false);
+            this.n = n;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            return endIndex - startIndex <= n ? startIndex : endIndex - n;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                // The last n chars seen, which are only passed on once n more chars follow them
+                private final RingBuffer last = new RingBuffer(n);
+
+                @Override
+                boolean accept(final char ch) {
+                    if (n == 0) {
+                        return downstream.accept(ch);
+                    }
+                    if (last.isFull() && !downstream.accept(last.first())) {
+                        return false;
+                    }
+                    last.add(ch);
+                    return true;
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class TakeLast extends Boundary {
+
+        private final int n;
+
+        TakeLast(final int n) {
+            super(true);
+            this.n = n;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            return endIndex - startIndex <= n ? startIndex : endIndex - n;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                private final RingBuffer last = new RingBuffer(n);
+
+                @Override
+                boolean accept(final char ch) {
+                    if (n > 0) {
+                        if (last.isFull()) {
+                            last.first();
+                        }
+                        last.add(ch);
+                    }
+                    return true;
+                }
+
+                @Override
+                void finish() {
+                    last.drainTo(downstream);
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class RemovePrefix extends Boundary {
+
+        private final String prefix;
+
+        RemovePrefix(final @NotNull String prefix) {
+            super(true);
+            this.prefix = prefix;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            final int length = prefix.length();
+            return endIndex - startIndex >= length && StringUtils.regionMatches(prefix, 0, seq, startIndex, length, false) ?
+                startIndex + length :
+                startIndex;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                // Number of leading chars matching the prefix so far, -1 once the prefix is removed or cannot match
+                private int matched;
+
+                @Override
+                boolean accept(final char ch) {
+                    if (matched < 0) {
+                        return downstream.accept(ch);
+                    }
+                    if (ch == prefix.charAt(matched)) {
+                        if (++matched == prefix.length()) {
+                            matched = -1;
+                        }
+                        return true;
+                    }
+                    // The chars held back are the ones of the prefix they matched
+                    final int held = matched;
+                    matched = -1;
+                    for (int i = 0; i < held; i++) {
+                        if (!downstream.accept(prefix.charAt(i))) {
+                            return false;
+                        }
+                    }
+                    return downstream.accept(ch);
+                }
+
+                @Override
+                void finish() {
+                    for (int i = 0; i < matched; i++) {
+                        if (!downstream.accept(prefix.charAt(i))) {
+                            break;
+                        }
+                    }
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class RemoveSuffix extends Boundary {
+
+        private final String suffix;
+
+        RemoveSuffix(final @NotNull String suffix) {
+            super(false);
+            this.suffix = suffix;
+        }
+
+        @Override
+        int narrow(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+            final int length = suffix.length();
+            return endIndex - startIndex >= length && StringUtils.regionMatches(suffix, 0, seq, endIndex - length, length, false) ?
+                endIndex - length :
+                endIndex;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                // The last chars seen, as many as the suffix has, held back until the end of the input shows whether they are the suffix
+                private final RingBuffer last = new RingBuffer(suffix.length());
+
+                @Override
+                boolean accept(final char ch) {
+                    if (last.isFull() && !downstream.accept(last.first())) {
+                        return false;
+                    }
+                    last.add(ch);
+                    return true;
+                }
+
+                @Override
+                void finish() {
+                    if (!last.isFull() || !last.contentEquals(suffix)) {
+                        last.drainTo(downstream);
+                    }
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class Filter extends Stage {
+
+        private final CharPredicate predicate;
+
+        Filter(final @NotNull CharPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                @Override
+                boolean accept(final char ch) {
+                    return !predicate.test(ch) || downstream.accept(ch);
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class MapChars extends Stage {
+
+        private final CharUnaryOperator operator;
+
+        MapChars(final @NotNull CharUnaryOperator operator) {
+            this.operator = operator;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                @Override
+                boolean accept(final char ch) {
+                    return downstream.accept(operator.apply(ch));
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    private static final class Collapse extends Stage {
+
+        private final CharPredicate predicate;
+        private final char replacement;
+
+        Collapse(final @NotNull CharPredicate predicate, final char replacement) {
+            this.predicate = predicate;
+            this.replacement = replacement;
+        }
+
+        @Override
+        @NotNull Processor processor(final @NotNull Processor downstream) {
+            return new Processor() {
+                private boolean inRun;
+
+                @Override
+                boolean accept(final char ch) {
+                    if (!predicate.test(ch)) {
+                        inRun = false;
+                        return downstream.accept(ch);
+                    }
+                    if (inRun) {
+                        return true;
+                    }
+                    inRun = true;
+                    return downstream.accept(replacement);
+                }
+
+                @Override
+                void finish() {
+                    downstream.finish();
+                }
+            };
+        }
+    }
+
+    // A fixed capacity FIFO of chars.
+    private static final class RingBuffer {
+
+        private final char[] chars;
+        private int head;
+        private int size;
+
+        RingBuffer(final int capacity) {
+            this.chars = new char[capacity];
+        }
+
+        boolean isFull() {
+            return size == chars.length;
+        }
+
+        void add(final char ch) {
+            chars[(head + size++) % chars.length] = ch;
+        }
+
+        // Removes and returns the oldest char.
+        char first() {
+            final char ch = chars[head];
+            head = (head + 1) % chars.length;
+            size--;
+            return ch;
+        }
+
+        boolean contentEquals(final @NotNull String str) {
+            for (int i = 0; i < size; i++) {
+                if (chars[(head + i) % chars.length] != str.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void drainTo(final @NotNull Processor downstream) {
+            while (size > 0) {
+                if (!downstream.accept(first())) {
+                    return;
+                }
+            }
+        }
+    }
+}
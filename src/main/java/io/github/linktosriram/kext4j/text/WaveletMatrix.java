@@ -0,0 +1,117 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.NotNull;
+
+// A wavelet matrix over an array of non-negative ints, answering for any range of positions which is the smallest value at least, or the
+// largest value at most, a given bound, in time proportional to the number of bits of the values.
+// Each level holds one bit of every value, from the highest bit down, with the values stably sorted by their bits above that level: a range of
+// positions maps to one range of the next level among the zeros and one among the ones, which rank queries locate.
+final class WaveletMatrix {
+
+    private final int levels;
+    private final long[][] bits;
+    // Number of ones before each word of each level
+    private final int[][] ranks;
+    private final int[] zeros;
+
+    WaveletMatrix(final @NotNull int[] values, final int maxValue) {
+        this.levels = Math.max(32 - Integer.numberOfLeadingZeros(maxValue), 1);
+        this.bits = new long[levels][];
+        this.ranks = new int[levels][];
+        this.zeros = new int[levels];
+        final int length = values.length;
+        int[] current = values.clone();
+        int[] next = new int[length];
+        for (int level = 0; level < levels; level++) {
+            final int bit = levels - 1 - level;
+            final long[] words = new long[(length >>> 6) + 1];
+            // The bits of suffix array positions are random, so the loops are kept free of branches on them
+            for (int i = 0; i < length; i++) {
+                words[i >>> 6] |= (long) (current[i] >>> bit & 1) << i;
+            }
+            final int[] levelRanks = new int[words.length];
+            for (int i = 1; i < words.length; i++) {
+                levelRanks[i] = levelRanks[i - 1] + Long.bitCount(words[i - 1]);
+            }
+            final int zeroCount = length - levelRanks[words.length - 1] - Long.bitCount(words[words.length - 1]);
+            int zeroIndex = 0;
+            int oneIndex = zeroCount;
+            for (int i = 0; i < length; i++) {
+                final int one = current[i] >>> bit & 1;
+                next[zeroIndex + (oneIndex - zeroIndex) * one] = current[i];
+                zeroIndex += 1 - one;
+                oneIndex += one;
+            }
+            bits[level] = words;
+            ranks[level] = levelRanks;
+            zeros[level] = zeroCount;
+            final int[] swap = current;
+            current = next;
+            next = swap;
+        }
+    }
+
+    // Returns the smallest value in [fromIndex, toIndex) not less than bound, or -1 if there is none.
+    int nextValue(final int fromIndex, final int toIndex, final int bound) {
+        return nextValue(0, fromIndex, toIndex, 0, bound, true);
+    }
+
+    // Returns the largest value in [fromIndex, toIndex) not greater than bound, or -1 if there is none.
+    int previousValue(final int fromIndex, final int toIndex, final int bound) {
+        return bound < 0 ? -1 : previousValue(0, fromIndex, toIndex, 0, bound, true);
+    }
+
+    // Approximate memory held by the matrix, in bytes.
+    long sizeInBytes() {
+        long size = 4L * zeros.length;
+        for (int level = 0; level < levels; level++) {
+            size += 8L * bits[level].length + 4L * ranks[level].length;
+        }
+        return size;
+    }
+
+    // Values in the range share their bits above the level with prefix. While tight, they also share them with bound, whose lower bits still
+    // constrain the result; once larger, any value of the range qualifies and the smallest one is followed.
+    private int nextValue(final int level, final int fromIndex, final int toIndex, final int prefix, final int bound, final boolean tight) {
+        if (fromIndex >= toIndex) {
+            return -1;
+        }
+        if (level == levels) {
+            return prefix;
+        }
+        final int bit = levels - 1 - level;
+        final int zeroFrom = fromIndex - rank(level, fromIndex);
+        final int zeroTo = toIndex - rank(level, toIndex);
+        final int oneFrom = zeros[level] + fromIndex - zeroFrom;
+        final int oneTo = zeros[level] + toIndex - zeroTo;
+        if (tight && (bound >>> bit & 1) != 0) {
+            return nextValue(level + 1, oneFrom, oneTo, prefix | 1 << bit, bound, true);
+        }
+        final int result = nextValue(level + 1, zeroFrom, zeroTo, prefix, bound, tight);
+        return result >= 0 ? result : nextValue(level + 1, oneFrom, oneTo, prefix | 1 << bit, bound, false);
+    }
+
+    private int previousValue(final int level, final int fromIndex, final int toIndex, final int prefix, final int bound, final boolean tight) {
+        if (fromIndex >= toIndex) {
+            return -1;
+        }
+        if (level == levels) {
+            return prefix;
+        }
+        final int bit = levels - 1 - level;
+        final int zeroFrom = fromIndex - rank(level, fromIndex);
+        final int zeroTo = toIndex - rank(level, toIndex);
+        final int oneFrom = zeros[level] + fromIndex - zeroFrom;
+        final int oneTo = zeros[level] + toIndex - zeroTo;
+        if (tight && (bound >>> bit & 1) == 0) {
+            return previousValue(level + 1, zeroFrom, zeroTo, prefix, bound, true);
+        }
+        final int result = previousValue(level + 1, oneFrom, oneTo, prefix | 1 << bit, bound, tight);
+        return result >= 0 ? result : previousValue(level + 1, zeroFrom, zeroTo, prefix, bound, false);
+    }
+
+    // Number of ones before the given position of the level.
+    private int rank(final int level, final int index) {
+        return ranks[level][index >>> 6] + Long.bitCount(bits[level][index >>> 6] & (1L << index) - 1);
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+// An immutable set of code points, stored as sorted, disjoint and non-adjacent inclusive ranges.
+final class CodePointSet {
+
+    static final CodePointSet EMPTY = new CodePointSet(new int[0]);
+    static final CodePointSet ALL = range(0, Character.MAX_CODE_POINT);
+
+    // Pairs of lower and upper bounds
+    private final int[] ranges;
+
+    private CodePointSet(final @NotNull int[] ranges) {
+        this.ranges = ranges;
+    }
+
+    @Contract(value = "_ -> new", pure = true)
+    static @NotNull CodePointSet of(final int codePoint) {
+        return new CodePointSet(new int[]{codePoint, codePoint});
+    }
+
+    @Contract(value = "_, _ -> new", pure = true)
+    static @NotNull CodePointSet range(final int first, final int last) {
+        return new CodePointSet(new int[]{first, last});
+    }
+
+    // Returns the set of the given chars.
+    static @NotNull CodePointSet of(final @NotNull String chars) {
+        CodePointSet result = EMPTY;
+        for (int i = 0; i < chars.length(); i++) {
+            result = result.union(of(chars.charAt(i)));
+        }
+        return result;
+    }
+
+    boolean contains(final int codePoint) {
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (codePoint < ranges[2 * middle]) {
+                high = middle - 1;
+            } else if (codePoint > ranges[2 * middle + 1]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        return ranges.length == 0;
+    }
+
+    int rangeCount() {
+        return ranges.length / 2;
+    }
+
+    int first(final int range) {
+        return ranges[2 * range];
+    }
+
+    int last(final int range) {
+        return ranges[2 * range + 1];
+    }
+
+    @NotNull CodePointSet union(final @NotNull CodePointSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        final int[] all = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+        System.arraycopy(other.ranges, 0, all, ranges.length, other.ranges.length);
+        return normalize(all);
+    }
+
+    @NotNull CodePointSet complement() {
+        final int[] result = new int[ranges.length + 2];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                result[size++] = next;
+                result[size++] = ranges[i] - 1;
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= Character.MAX_CODE_POINT) {
+            result[size++] = next;
+            result[size++] = Character.MAX_CODE_POINT;
+        }
+        return new CodePointSet(Arrays.copyOf(result, size));
+    }
+
+    // Adds the other case of the ASCII letters of this set, as java.util.regex does for CASE_INSENSITIVE without UNICODE_CASE.
+    @NotNull CodePointSet withAsciiCaseVariants() {
+        CodePointSet result = this;
+        for (int i = 0; i < ranges.length; i += 2) {
+            result = result.union(shifted(ranges[i], ranges[i + 1], 'A', 'Z', 'a' - 'A'))
+                .union(shifted(ranges[i], ranges[i + 1], 'a', 'z', 'A' - 'a'));
+        }
+        return result;
+    }
+
+    // Returns the intersection of [first, last] and [lower, upper], shifted by offset.
+    private static @NotNull CodePointSet shifted(final int first, final int last, final int lower, final int upper, final int offset) {
+        final int start = Math.max(first, lower);
+        final int end = Math.min(last, upper);
+        return start > end ? EMPTY : range(start + offset, end + offset);
+    }
+
+    private static @NotNull CodePointSet normalize(final @NotNull int[] pairs) {
+        final int count = pairs.length / 2;
+        final long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = (long) pairs[2 * i] << 32 | pairs[2 * i + 1];
+        }
+        Arrays.sort(packed);
+        final int[] result = new int[pairs.length];
+        int size = 0;
+        for (final long range : packed) {
+            final int first = (int) (range >>> 32);
+            final int last = (int) range;
+            if (size > 0 && first <= result[size - 1] + 1) {
+                result[size - 1] = Math.max(result[size - 1], last);
+            } else {
+                result[size++] = first;
+                result[size++] = last;
+            }
+        }
+        return new CodePointSet(Arrays.copyOf(result, size));
+    }
+}
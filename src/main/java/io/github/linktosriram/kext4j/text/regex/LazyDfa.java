@@ -0,0 +1,200 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// A DFA built lazily from a Program without assertions: each state is the set of NFA instructions live at some input position, and its
+// transitions are computed the first time they are taken. States and transitions are cached up to a memory budget; when the cache is full it
+// is flushed and rebuilt from the current state, so memory stays bounded and each input char costs at most one transition computation.
+// Not thread-safe, LinearRegex hands each instance to one thread at a time.
+final class LazyDfa {
+
+    // Upper bound of the transition tables, in ints
+    private static final int CACHE_BUDGET = 1 << 18;
+    private static final int MIN_STATES = 16;
+    private static final int UNKNOWN = -1;
+
+    private final Program program;
+    // Whether every position may start a match, which adds the start instructions to every state
+    private final boolean unanchored;
+    private final int maxStates;
+    private final Map<StateKey, Integer> ids = new HashMap<>();
+    private int[][] transitions = new int[MIN_STATES][];
+    private int[][] states = new int[MIN_STATES][];
+    private boolean[] accepting = new boolean[MIN_STATES];
+    private int count;
+    private int start;
+
+    // Scratch space for computing a state
+    private final boolean[] marks;
+    private final int[] members;
+    private final int[] stack;
+    private int memberCount;
+
+    LazyDfa(final @NotNull Program program, final boolean unanchored) {
+        this.program = program;
+        this.unanchored = unanchored;
+        this.maxStates = Math.max(MIN_STATES, CACHE_BUDGET / program.classCount);
+        this.marks = new boolean[program.size()];
+        this.members = new int[program.size()];
+        this.stack = new int[2 * program.size() + 1];
+        flush();
+    }
+
+    // Indicates whether the whole input is matched, the DFA being anchored.
+    boolean matches(final @NotNull CharSequence input) {
+        final int length = input.length();
+        int state = start;
+        for (int i = 0; i < length; ) {
+            final int codePoint = Character.codePointAt(input, i);
+            i += Character.charCount(codePoint);
+            state = next(state, program.classOf(codePoint));
+            if (states[state].length == 0) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    // Indicates whether a match ends anywhere in the input, starting at or after fromIndex, the DFA being unanchored.
+    boolean find(final @NotNull CharSequence input, final int fromIndex) {
+        final int length = input.length();
+        int state = start;
+        for (int i = fromIndex; !accepting[state]; ) {
+            if (i >= length) {
+                return false;
+            }
+            final int codePoint = Character.codePointAt(input, i);
+            i += Character.charCount(codePoint);
+            state = next(state, program.classOf(codePoint));
+        }
+        return true;
+    }
+
+    private int next(final int state, final int equivalenceClass) {
+        final int target = transitions[state][equivalenceClass];
+        return target != UNKNOWN ? target : computeTransition(state, equivalenceClass);
+    }
+
+    private int computeTransition(final int state, final int equivalenceClass) {
+        final int codePoint = program.representative(equivalenceClass);
+        memberCount = 0;
+        for (final int pc : states[state]) {
+            if (program.opcodes[pc] == Program.CHAR && program.sets[pc].contains(codePoint)) {
+                addClosure(pc + 1);
+            }
+        }
+        if (unanchored) {
+            addClosure(0);
+        }
+        final StateKey key = takeMembers();
+        Integer id = ids.get(key);
+        if (id == null) {
+            if (count == maxStates) {
+                // The ids of the cached states are no longer valid, the transition of the current state is not recorded
+                flush();
+                return addState(key);
+            }
+            id = addState(key);
+        }
+        transitions[state][equivalenceClass] = id;
+        return id;
+    }
+
+    private void flush() {
+        ids.clear();
+        Arrays.fill(transitions, null);
+        Arrays.fill(states, null);
+        count = 0;
+        memberCount = 0;
+        addClosure(0);
+        start = addState(takeMembers());
+    }
+
+    // Returns the key of the state made of the CHAR and MATCH instructions visited since the last call, and resets the scratch space.
+    private @NotNull StateKey takeMembers() {
+        final int[] result = new int[memberCount];
+        int size = 0;
+        for (int i = 0; i < memberCount; i++) {
+            final int pc = members[i];
+            marks[pc] = false;
+            if (program.opcodes[pc] == Program.CHAR || program.opcodes[pc] == Program.MATCH) {
+                result[size++] = pc;
+            }
+        }
+        memberCount = 0;
+        final int[] sorted = Arrays.copyOf(result, size);
+        Arrays.sort(sorted);
+        return new StateKey(sorted);
+    }
+
+    private int addState(final @NotNull StateKey key) {
+        if (count == states.length) {
+            final int capacity = Math.min(count * 2, maxStates);
+            transitions = Arrays.copyOf(transitions, capacity);
+            states = Arrays.copyOf(states, capacity);
+            accepting = Arrays.copyOf(accepting, capacity);
+        }
+        final int id = count++;
+        states[id] = key.members;
+        final int[] row = new int[program.classCount];
+        Arrays.fill(row, UNKNOWN);
+        transitions[id] = row;
+        boolean match = false;
+        for (final int pc : key.members) {
+            match |= program.opcodes[pc] == Program.MATCH;
+        }
+        accepting[id] = match;
+        ids.put(key, id);
+        return id;
+    }
+
+    // Adds the instructions reachable from pc without consuming input to the members being computed.
+    private void addClosure(final int pc) {
+        int top = 0;
+        stack[top++] = pc;
+        while (top > 0) {
+            final int at = stack[--top];
+            if (marks[at]) {
+                continue;
+            }
+            marks[at] = true;
+            members[memberCount++] = at;
+            switch (program.opcodes[at]) {
+                case Program.JUMP:
+                    stack[top++] = program.arguments[at];
+                    break;
+                case Program.SPLIT:
+                    stack[top++] = program.alternates[at];
+                    stack[top++] = program.arguments[at];
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static final class StateKey {
+
+        private final int[] members;
+        private final int hash;
+
+        StateKey(final @NotNull int[] members) {
+            this.members = members;
+            this.hash = Arrays.hashCode(members);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof StateKey && Arrays.equals(members, ((StateKey) obj).members);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import io.github.linktosriram.kext4j.sequence.Sequence;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+/**
+ * A regular expression engine guaranteeing linear matching time, for patterns which cannot be trusted such as user-supplied filters.
+ * <p>
+ * {@link Regex} and {@link Pattern} backtrack, so that some patterns take exponential time on some inputs. {@code LinearRegex} accepts the
+ * regular subset of the {@link Pattern} syntax: literals and escapes, {@code .}, bracketed classes with ranges, predefined classes
+ * ({@code \d \w \s}, POSIX {@code \p{...}}), groups, alternation, greedy and lazy quantifiers, and the {@code ^ $ \A \z \Z \b \B}
+ * anchors. Back references, lookaround, atomic groups, possessive quantifiers, inline flags, nested classes and class intersections are
+ * rejected with a {@link java.util.regex.PatternSyntaxException}. Groups do not capture: matches only report their bounds, which are the ones
+ * {@link Pattern} would find, except for repeated groups which can match the empty string: {@link Pattern} stops repeating such a group after
+ * an empty iteration, which an automaton cannot track.
+ * <p>
+ * The pattern compiles to an NFA. Patterns without anchors are matched by a DFA built lazily from it, whose state cache is bounded; matches
+ * are located, and patterns with anchors matched, by simulating the NFA directly. Either way, matching takes time linear in the length of
+ * the input, and memory bounded by the size of the pattern.
+ * <p>
+ * Only the {@link Pattern#CASE_INSENSITIVE} (ASCII only, as without {@link Pattern#UNICODE_CASE}), {@link Pattern#MULTILINE} and
+ * {@link Pattern#DOTALL} flags are supported. Instances are thread-safe.
+ */
+public final class LinearRegex {
+
+    private static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL;
+
+    private final String pattern;
+    private final int flags;
+    private final Program program;
+    // Idle DFAs, with their cached states, taken by the thread running a match and given back afterwards
+    private final AtomicReference<LazyDfa> anchoredDfa = new AtomicReference<>();
+    private final AtomicReference<LazyDfa> unanchoredDfa = new AtomicReference<>();
+
+    public LinearRegex(final @NotNull String pattern) {
+        this(pattern, 0);
+    }
+
+    // Creates a regular expression from the given pattern and Pattern flags, throwing PatternSyntaxException if the pattern is invalid or
+    // outside of the supported subset.
+    public LinearRegex(final @NotNull String pattern, final int flags) {
+        if ((flags & ~SUPPORTED_FLAGS) != 0) {
+            throw new IllegalArgumentException("Unsupported flags: " + (flags & ~SUPPORTED_FLAGS));
+        }
+        this.pattern = pattern;
+        this.flags = flags;
+        this.program = Program.compile(new RegexParser(pattern, flags).parse(), pattern);
+    }
+
+    // Returns the string representation of this regular expression.
+    public @NotNull String getPattern() {
+        return pattern;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    // Indicates whether the regular expression matches the entire input.
+    public boolean matches(final @NotNull CharSequence input) {
+        if (program.hasAssertions) {
+            return new PikeVm(program).search(input, 0, true, true) != null;
+        }
+        final LazyDfa dfa = acquire(anchoredDfa, false);
+        try {
+            return dfa.matches(input);
+        } finally {
+            anchoredDfa.set(dfa);
+        }
+    }
+
+    // Indicates whether the regular expression can find at least one match in the specified input.
+    public boolean containsMatchIn(final @NotNull CharSequence input) {
+        return program.hasAssertions ? new PikeVm(program).search(input, 0, false, false) != null : dfaFind(input, 0);
+    }
+
+    // Returns the first match of the regular expression in the input, or null if there is none.
+    public @Nullable MatchResult find(final @NotNull CharSequence input) {
+        return find(input, 0);
+    }
+
+    // Returns the first match of the regular expression in the input, beginning at the specified startIndex, or null if there is none.
+    public @Nullable MatchResult find(final @NotNull CharSequence input, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        if (startIndex < 0 || startIndex > input.length()) {
+            throw new IndexOutOfBoundsException("Start index out of bounds: " + startIndex + ", input length: " + input.length());
+        }
+        return search(new PikeVm(program), input, startIndex);
+    }
+
+    // Returns a lazy sequence of all successive matches of the regular expression in the input.
+    public @NotNull Sequence<MatchResult> findAll(final @NotNull CharSequence input) {
+        return () -> new Iterator<MatchResult>() {
+            private final PikeVm vm = new PikeVm(program);
+            private @Nullable MatchResult next;
+            // Index the next search starts at, -1 once there are no more matches
+            private int fromIndex;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && fromIndex >= 0) {
+                    next = fromIndex > input.length() ? null : search(vm, input, fromIndex);
+                    if (next == null) {
+                        fromIndex = -1;
+                    } else {
+                        // As Matcher.find does, the search resumes after an empty match
+                        fromIndex = next.end() == next.start() ? next.end() + 1 : next.end();
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public MatchResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final MatchResult result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+
+    private @Nullable MatchResult search(final @NotNull PikeVm vm, final @NotNull CharSequence input, final int startIndex) {
+        // The DFA rules out inputs without any match in a single pass, before locating the match with the NFA
+        if (!program.hasAssertions && !dfaFind(input, startIndex)) {
+            return null;
+        }
+        final int[] bounds = vm.search(input, startIndex, false, false);
+        return bounds == null ? null : new RangeMatchResult(input, bounds[0], bounds[1]);
+    }
+
+    private boolean dfaFind(final @NotNull CharSequence input, final int startIndex) {
+        final LazyDfa dfa = acquire(unanchoredDfa, true);
+        try {
+            return dfa.find(input, startIndex);
+        } finally {
+            unanchoredDfa.set(dfa);
+        }
+    }
+
+    private @NotNull LazyDfa acquire(final @NotNull AtomicReference<LazyDfa> pool, final boolean unanchored) {
+        final LazyDfa dfa = pool.getAndSet(null);
+        return dfa != null ? dfa : new LazyDfa(program, unanchored);
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded, thread-safe cache of compiled {@link Pattern}s, shared by {@link Regex} and
+ * {@link io.github.linktosriram.kext4j.text.StringUtils#toPattern}, so that patterns compiled again and again (typically user-supplied filters)
+ * are only compiled once.
+ * <p>
+ * Hits are served from a {@link ConcurrentHashMap} without locking. Eviction approximates LRU with the clock algorithm: a hit marks its entry
+ * as referenced, writing only if it was not already marked, and once an insertion takes the cache over its size, the entries are scanned in a
+ * circle from where the previous scan stopped, clearing the marks, until an unmarked one is found and removed. Patterns used only once are
+ * thus evicted before those in repeated use.
+ * <p>
+ * {@link Pattern} instances are immutable and safe to share. Compilation happens outside of the lock taken by insertions: two threads missing on
+ * the same pattern at the same time may both compile it, and one of the results is kept.
+ */
+public final class PatternCache {
+
+    private static final int MAXIMUM_SIZE = 256;
+
+    private static final ConcurrentHashMap<Key, Entry> CACHE = new ConcurrentHashMap<>(64);
+    // Serializes insertions and evictions, which only happen on a miss
+    private static final Object EVICTION_LOCK = new Object();
+    // The clock hand, resuming each eviction scan where the previous one stopped, so that a mark protects an entry for a whole revolution
+    private static @Nullable Iterator<Map.Entry<Key, Entry>> hand;
+
+    @Contract(value = " -> fail", pure = true)
+    private PatternCache() {
+        throw new AssertionError();
+    }
+
+    // Returns the compiled pattern for the given regular expression, compiling it on a cache miss.
+    public static @NotNull Pattern get(final @NotNull String regex) {
+        return get(regex, 0);
+    }
+
+    // Returns the compiled pattern for the given regular expression and Pattern flags, compiling it on a cache miss.
+    public static @NotNull Pattern get(final @NotNull String regex, final int flags) {
+        final Key key = new Key(regex, flags);
+        final Entry entry = CACHE.get(key);
+        if (entry != null) {
+            // Reading first keeps the cache line of a hot entry shared between cores
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.pattern;
+        }
+        final Pattern pattern = Pattern.compile(regex, flags);
+        synchronized (EVICTION_LOCK) {
+            final Entry existing = CACHE.putIfAbsent(key, new Entry(pattern));
+            if (existing != null) {
+                return existing.pattern;
+            }
+            while (CACHE.size() > MAXIMUM_SIZE) {
+                evictOne();
+            }
+        }
+        return pattern;
+    }
+
+    // Removes all cached patterns.
+    public static void clear() {
+        synchronized (EVICTION_LOCK) {
+            CACHE.clear();
+            hand = null;
+        }
+    }
+
+    // Advances the hand to the next entry not referenced since the hand last passed it, clearing the marks of the ones passed, and removes it.
+    // Hits racing with the scan may mark entries again, so after two revolutions the entry under the hand is removed regardless.
+    private static void evictOne() {
+        final int maxScanned = 2 * CACHE.size();
+        for (int scanned = 0; ; scanned++) {
+            if (hand == null || !hand.hasNext()) {
+                hand = CACHE.entrySet().iterator();
+            }
+            final Map.Entry<Key, Entry> candidate = hand.next();
+            final Entry entry = candidate.getValue();
+            if (!entry.referenced || scanned >= maxScanned) {
+                CACHE.remove(candidate.getKey(), entry);
+                return;
+            }
+            entry.referenced = false;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Pattern pattern;
+        // Set by hits, cleared by eviction scans
+        private volatile boolean referenced;
+
+        Entry(final @NotNull Pattern pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    private static final class Key {
+
+        private final String regex;
+        private final int flags;
+
+        Key(final @NotNull String regex, final int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return flags == other.flags && regex.equals(other.regex);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(regex, flags);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Simulates a Program over an input, running all the NFA threads in lock step. Each instruction is held by at most one thread per input
+// position, the one with the highest priority, so a search takes O(input length * program size) time and O(program size) memory whatever
+// the pattern.
+final class PikeVm {
+
+    private final Program program;
+    private ThreadList current;
+    private ThreadList next;
+    private final int[] stack;
+
+    PikeVm(final @NotNull Program program) {
+        this.program = program;
+        this.current = new ThreadList(program.size());
+        this.next = new ThreadList(program.size());
+        this.stack = new int[2 * program.size() + 1];
+    }
+
+    // Returns the start and end of the leftmost-first match at or after fromIndex, or null. With anchored, the match must start at fromIndex;
+    // with entire, it must also end at the end of the input.
+    @Nullable int[] search(final @NotNull CharSequence input, final int fromIndex, final boolean anchored, final boolean entire) {
+        final int length = input.length();
+        int matchStart = -1;
+        int matchEnd = -1;
+        current.clear();
+        int index = fromIndex;
+        while (true) {
+            if (matchStart < 0 && (!anchored || index == fromIndex)) {
+                addThread(current, 0, index, input, index);
+            }
+            if (current.size == 0 && (matchStart >= 0 || anchored)) {
+                break;
+            }
+            final int codePoint = index < length ? Character.codePointAt(input, index) : -1;
+            final int width = codePoint < 0 ? 0 : Character.charCount(codePoint);
+            next.clear();
+            for (int i = 0; i < current.size; i++) {
+                final int pc = current.pcs[i];
+                if (program.opcodes[pc] == Program.MATCH) {
+                    if (!entire || index == length) {
+                        matchStart = current.starts[i];
+                        matchEnd = index;
+                        // Lower priority threads can no longer win
+                        break;
+                    }
+                } else if (codePoint >= 0 && program.sets[pc].contains(codePoint)) {
+                    addThread(next, pc + 1, current.starts[i], input, index + width);
+                }
+            }
+            if (codePoint < 0) {
+                break;
+            }
+            final ThreadList swap = current;
+            current = next;
+            next = swap;
+            index += width;
+        }
+        return matchStart < 0 ? null : new int[]{matchStart, matchEnd};
+    }
+
+    // Adds the thread at pc and everything reachable from it without consuming input, in priority order.
+    private void addThread(final @NotNull ThreadList list, final int pc, final int start, final @NotNull CharSequence input, final int index) {
+        int top = 0;
+        stack[top++] = pc;
+        while (top > 0) {
+            final int at = stack[--top];
+            if (!list.visit(at)) {
+                continue;
+            }
+            switch (program.opcodes[at]) {
+                case Program.JUMP:
+                    stack[top++] = program.arguments[at];
+                    break;
+                case Program.SPLIT:
+                    stack[top++] = program.alternates[at];
+                    stack[top++] = program.arguments[at];
+                    break;
+                case Program.ASSERT:
+                    if (Program.holds(program.arguments[at], input, index)) {
+                        stack[top++] = at + 1;
+                    }
+                    break;
+                default:
+                    list.add(at, start);
+                    break;
+            }
+        }
+    }
+
+    // The threads of one input position, in priority order, with a sparse set of the visited instructions.
+    private static final class ThreadList {
+
+        final int[] pcs;
+        final int[] starts;
+        int size;
+        private final int[] dense;
+        private final int[] sparse;
+        private int visited;
+
+        ThreadList(final int programSize) {
+            pcs = new int[programSize];
+            starts = new int[programSize];
+            dense = new int[programSize];
+            sparse = new int[programSize];
+        }
+
+        // Marks pc as visited, returning false if it already was.
+        boolean visit(final int pc) {
+            final int slot = sparse[pc];
+            if (slot < visited && dense[slot] == pc) {
+                return false;
+            }
+            sparse[pc] = visited;
+            dense[visited++] = pc;
+            return true;
+        }
+
+        void add(final int pc, final int start) {
+            pcs[size] = pc;
+            starts[size++] = start;
+        }
+
+        void clear() {
+            size = 0;
+            visited = 0;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.PatternSyntaxException;
+
+// A Thompson NFA compiled from a RegexNode, as a list of instructions. The first branch of a SPLIT has the higher priority, which gives the
+// leftmost-first semantics of java.util.regex.
+// Code points are also partitioned into equivalence classes, code points of the same class being matched by exactly the same instructions,
+// so that the lazy DFA has one transition per class rather than per code point.
+final class Program {
+
+    // Opcodes
+    static final int CHAR = 0;
+    static final int SPLIT = 1;
+    static final int JUMP = 2;
+    static final int ASSERT = 3;
+    static final int MATCH = 4;
+
+    // Assertion kinds
+    static final int BEGIN_INPUT = 0;
+    static final int BEGIN_LINE = 1;
+    static final int END_INPUT = 2;
+    static final int END_INPUT_OR_FINAL_TERMINATOR = 3;
+    static final int END_LINE = 4;
+    static final int WORD_BOUNDARY = 5;
+    static final int NOT_WORD_BOUNDARY = 6;
+
+    static final int MAX_SIZE = 10_000;
+
+    final int[] opcodes;
+    // Next instruction of JUMP, first branch of SPLIT, kind of ASSERT
+    final int[] arguments;
+    // Second branch of SPLIT
+    final int[] alternates;
+    // Code point set of CHAR, null for the other opcodes
+    final CodePointSet[] sets;
+    final boolean hasAssertions;
+    final int classCount;
+
+    private final int[] boundaries;
+    private final int[] asciiClasses = new int[128];
+
+    private Program(final @NotNull Compiler compiler) {
+        final int size = compiler.size;
+        this.opcodes = Arrays.copyOf(compiler.opcodes, size);
+        this.arguments = Arrays.copyOf(compiler.arguments, size);
+        this.alternates = Arrays.copyOf(compiler.alternates, size);
+        this.sets = compiler.sets.toArray(new CodePointSet[0]);
+        boolean hasAssertions = false;
+        final TreeSet<Integer> boundaries = new TreeSet<>();
+        for (int pc = 0; pc < size; pc++) {
+            hasAssertions |= opcodes[pc] == ASSERT;
+            if (opcodes[pc] == CHAR) {
+                final CodePointSet set = sets[pc];
+                for (int i = 0; i < set.rangeCount(); i++) {
+                    boundaries.add(set.first(i));
+                    if (set.last(i) < Character.MAX_CODE_POINT) {
+                        boundaries.add(set.last(i) + 1);
+                    }
+                }
+            }
+        }
+        this.hasAssertions = hasAssertions;
+        this.boundaries = boundaries.stream().mapToInt(Integer::intValue).toArray();
+        this.classCount = this.boundaries.length + 1;
+        for (int ch = 0; ch < 128; ch++) {
+            asciiClasses[ch] = searchClass(ch);
+        }
+    }
+
+    static @NotNull Program compile(final @NotNull RegexNode node, final @NotNull String pattern) {
+        final Compiler compiler = new Compiler(pattern);
+        compiler.compile(node);
+        compiler.emit(MATCH, 0, 0, null);
+        return new Program(compiler);
+    }
+
+    int size() {
+        return opcodes.length;
+    }
+
+    // Returns the equivalence class of the given code point.
+    int classOf(final int codePoint) {
+        return codePoint < 128 ? asciiClasses[codePoint] : searchClass(codePoint);
+    }
+
+    // Returns a code point of the given equivalence class.
+    int representative(final int equivalenceClass) {
+        return equivalenceClass == 0 ? 0 : boundaries[equivalenceClass - 1];
+    }
+
+    private int searchClass(final int codePoint) {
+        final int index = Arrays.binarySearch(boundaries, codePoint);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // Indicates whether the assertion of the given kind holds at the given index of the input, with the semantics of java.util.regex.
+    static boolean holds(final int kind, final @NotNull CharSequence input, final int index) {
+        final int length = input.length();
+        switch (kind) {
+            case BEGIN_INPUT:
+                return index == 0;
+            case BEGIN_LINE:
+                // Never matches at the end of the input, nor between CR and LF
+                if (index == length) {
+                    return false;
+                }
+                return index == 0 || isLineTerminator(input.charAt(index - 1)) && !(input.charAt(index - 1) == '\r' && input.charAt(index) == '\n');
+            case END_INPUT:
+                return index == length;
+            case END_INPUT_OR_FINAL_TERMINATOR:
+                if (index < length - 2) {
+                    return false;
+                }
+                if (index == length - 2) {
+                    return input.charAt(index) == '\r' && input.charAt(index + 1) == '\n';
+                }
+                return index == length || isLineTerminator(input.charAt(index))
+                    && !(input.charAt(index) == '\n' && index > 0 && input.charAt(index - 1) == '\r');
+            case END_LINE:
+                if (index == length) {
+                    return true;
+                }
+                final char ch = input.charAt(index);
+                return ch == '\n' ? index == 0 || input.charAt(index - 1) != '\r' : isLineTerminator(ch);
+            case WORD_BOUNDARY:
+                return isWordBoundary(input, index);
+            case NOT_WORD_BOUNDARY:
+                return !isWordBoundary(input, index);
+            default:
+                throw new IllegalArgumentException("Unknown assertion kind " + kind);
+        }
+    }
+
+    private static boolean isWordBoundary(final @NotNull CharSequence input, final int index) {
+        final boolean left = index > 0 && isWord(Character.codePointBefore(input, index));
+        final boolean right = index < input.length() && isWord(Character.codePointAt(input, index));
+        return left != right;
+    }
+
+    private static boolean isWord(final int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isLineTerminator(final char ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || (ch | 1) == '\u2029';
+    }
+
+    private static final class Compiler {
+
+        private final String pattern;
+        private int[] opcodes = new int[16];
+        private int[] arguments = new int[16];
+        private int[] alternates = new int[16];
+        private final List<CodePointSet> sets = new ArrayList<>();
+        private int size;
+
+        Compiler(final @NotNull String pattern) {
+            this.pattern = pattern;
+        }
+
+        void compile(final @NotNull RegexNode node) {
+            if (node instanceof RegexNode.CharSet) {
+                emit(CHAR, 0, 0, ((RegexNode.CharSet) node).set);
+            } else if (node instanceof RegexNode.Concatenation) {
+                for (final RegexNode child : ((RegexNode.Concatenation) node).nodes) {
+                    compile(child);
+                }
+            } else if (node instanceof RegexNode.Alternation) {
+                compileAlternation(((RegexNode.Alternation) node).alternatives);
+            } else if (node instanceof RegexNode.Repetition) {
+                compileRepetition((RegexNode.Repetition) node);
+            } else {
+                emit(ASSERT, ((RegexNode.Assertion) node).kind, 0, null);
+            }
+        }
+
+        private void compileAlternation(final @NotNull List<RegexNode> alternatives) {
+            final int[] jumps = new int[alternatives.size() - 1];
+            for (int i = 0; i < jumps.length; i++) {
+                final int split = emit(SPLIT, size + 1, 0, null);
+                compile(alternatives.get(i));
+                jumps[i] = emit(JUMP, 0, 0, null);
+                alternates[split] = size;
+            }
+            compile(alternatives.get(jumps.length));
+            for (final int jump : jumps) {
+                arguments[jump] = size;
+            }
+        }
+
+        private void compileRepetition(final @NotNull RegexNode.Repetition repetition) {
+            for (int i = 0; i < repetition.min; i++) {
+                compile(repetition.node);
+            }
+            if (repetition.max < 0) {
+                final int split = emit(SPLIT, 0, 0, null);
+                compile(repetition.node);
+                emit(JUMP, split, 0, null);
+                branch(split, repetition.greedy);
+                return;
+            }
+            final int optional = repetition.max - repetition.min;
+            final int[] splits = new int[optional];
+            for (int i = 0; i < optional; i++) {
+                splits[i] = emit(SPLIT, 0, 0, null);
+                compile(repetition.node);
+            }
+            for (final int split : splits) {
+                branch(split, repetition.greedy);
+            }
+        }
+
+        // Points the given split to the instruction after it and to the current end of the program, in priority order.
+        private void branch(final int split, final boolean greedy) {
+            arguments[split] = greedy ? split + 1 : size;
+            alternates[split] = greedy ? size : split + 1;
+        }
+
+        int emit(final int opcode, final int argument, final int alternate, final CodePointSet set) {
+            if (size == MAX_SIZE) {
+                throw new PatternSyntaxException("Pattern is too large, compiling to more than " + MAX_SIZE + " instructions", pattern, -1);
+            }
+            if (size == opcodes.length) {
+                opcodes = Arrays.copyOf(opcodes, size * 2);
+                arguments = Arrays.copyOf(arguments, size * 2);
+                alternates = Arrays.copyOf(alternates, size * 2);
+            }
+            opcodes[size] = opcode;
+            arguments[size] = argument;
+            alternates[size] = alternate;
+            sets.add(set);
+            return size++;
+        }
+    }
+}
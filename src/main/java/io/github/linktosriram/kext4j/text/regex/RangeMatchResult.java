@@ -0,0 +1,63 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.MatchResult;
+
+// A match with no capturing group, given by its bounds, as found by the literal fast path of Regex and by LinearRegex.
+final class RangeMatchResult implements MatchResult {
+
+    private final CharSequence input;
+    private final int start;
+    private final int end;
+
+    RangeMatchResult(final @NotNull CharSequence input, final int start, final int end) {
+        this.input = input;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int start() {
+        return start;
+    }
+
+    @Override
+    public int start(final int group) {
+        checkGroup(group);
+        return start;
+    }
+
+    @Override
+    public int end() {
+        return end;
+    }
+
+    @Override
+    public int end(final int group) {
+        checkGroup(group);
+        return end;
+    }
+
+    @Override
+    public @NotNull String group() {
+        return input.subSequence(start, end).toString();
+    }
+
+    @Override
+    public @NotNull String group(final int group) {
+        checkGroup(group);
+        return group();
+    }
+
+    @Override
+    public int groupCount() {
+        return 0;
+    }
+
+    private static void checkGroup(final int group) {
+        if (group != 0) {
+            throw new IndexOutOfBoundsException("No group " + group);
+        }
+    }
+}
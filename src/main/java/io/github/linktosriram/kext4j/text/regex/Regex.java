@@ -1,23 +1,422 @@
 package io.github.linktosriram.kext4j.text.regex;
 
+import io.github.linktosriram.kext4j.Preconditions;
+import io.github.linktosriram.kext4j.sequence.Sequence;
+import io.github.linktosriram.kext4j.text.StringUtils;
 import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Range;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static io.github.linktosriram.kext4j.collection.CollectionUtils.optimizeReadOnlyList;
+
+// Represents a compiled regular expression, backed by a java.util.regex.Pattern.
+// Patterns are compiled through PatternCache, so creating a Regex from the same string again is cheap.
+// The pattern is analysed once at construction: a pattern which is a plain literal is searched with indexOf without involving the regex engine,
+// and a pattern starting with a literal prefix only runs the Matcher at the positions where indexOf finds that prefix.
 public class Regex {
 
+    // Flags changing how the literal chars of a pattern match or are parsed
+    private static final int NON_LITERAL_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.CANON_EQ;
+    private static final String METACHARS = "^$.|?*+()[]{}";
+
     private final Pattern nativePattern;
+    // The whole pattern when it only matches that exact non-empty string, else null
+    private final @Nullable String literal;
+    // A non-empty string every match starts with, when the pattern is not a literal, else null
+    private final @Nullable String prefix;
 
-    @Contract(pure = true)
     private Regex(final Pattern nativePattern) {
         this.nativePattern = nativePattern;
+        final int flags = nativePattern.flags();
+        if ((flags & NON_LITERAL_FLAGS) != 0) {
+            literal = null;
+            prefix = null;
+        } else if ((flags & Pattern.LITERAL) != 0) {
+            literal = nativePattern.pattern().isEmpty() ? null : nativePattern.pattern();
+            prefix = null;
+        } else {
+            final String pattern = nativePattern.pattern();
+            final int[] end = new int[1];
+            final String literalPrefix = literalPrefix(pattern, end);
+            final boolean whole = end[0] == pattern.length();
+            literal = whole && !literalPrefix.isEmpty() ? literalPrefix : null;
+            prefix = !whole && !literalPrefix.isEmpty() && !hasAlternation(pattern) ? literalPrefix : null;
+        }
     }
 
     public Regex(final String pattern) {
-        this(Pattern.compile(pattern));
+        this(PatternCache.get(pattern));
+    }
+
+    // Creates a regular expression from the given pattern string and java.util.regex.Pattern flags.
+    public Regex(final @NotNull String pattern, final int flags) {
+        this(PatternCache.get(pattern, flags));
+    }
+
+    // Returns a Regex wrapping the given compiled pattern.
+    @Contract(value = "_ -> new", pure = true)
+    public static @NotNull Regex fromPattern(final @NotNull Pattern pattern) {
+        return new Regex(pattern);
+    }
+
+    // Returns a regular expression pattern string that matches the specified literal string literally.
+    public static @NotNull String escape(final @NotNull String literal) {
+        return Pattern.quote(literal);
+    }
+
+    // Returns a literal replacement expression for the specified literal string, for use as the replacement of replace and replaceFirst.
+    public static @NotNull String escapeReplacement(final @NotNull String literal) {
+        return Matcher.quoteReplacement(literal);
+    }
+
+    // Returns the string representation of this regular expression.
+    public @NotNull String getPattern() {
+        return nativePattern.pattern();
+    }
+
+    // Returns the java.util.regex.Pattern backing this regular expression.
+    public @NotNull Pattern toPattern() {
+        return nativePattern;
     }
 
+    // Indicates whether the regular expression matches the entire input.
     public boolean matches(final CharSequence input) {
-        return nativePattern.matcher(input).matches();
+        return literal != null ? StringUtils.contentEquals(input, literal) : nativePattern.matcher(input).matches();
+    }
+
+    // Indicates whether the regular expression can find at least one match in the specified input.
+    public boolean containsMatchIn(final @NotNull CharSequence input) {
+        if (literal != null) {
+            return StringUtils.indexOf(input, literal) >= 0;
+        }
+        return prefix != null ? search(newMatcher(input), input, 0) != null : nativePattern.matcher(input).find();
+    }
+
+    // Returns the first match of the regular expression in the input, or null if there is none.
+    public @Nullable MatchResult find(final @NotNull CharSequence input) {
+        return find(input, 0);
+    }
+
+    // Returns the first match of the regular expression in the input, beginning at the specified startIndex, or null if there is none.
+    public @Nullable MatchResult find(final @NotNull CharSequence input, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        checkStartIndex(input, startIndex);
+        return search(newMatcher(input), input, startIndex);
+    }
+
+    // Returns a lazy sequence of all successive matches of the regular expression in the input, each iteration running its own Matcher.
+    public @NotNull Sequence<MatchResult> findAll(final @NotNull CharSequence input) {
+        return findAll(input, 0);
+    }
+
+    // Returns a lazy sequence of all successive matches of the regular expression in the input, beginning at the specified startIndex.
+    public @NotNull Sequence<MatchResult> findAll(final @NotNull CharSequence input, final @Range(from = 0, to = Integer.MAX_VALUE) int startIndex) {
+        checkStartIndex(input, startIndex);
+        return () -> new MatchIterator(input, startIndex);
+    }
+
+    // Attempts to match the entire input against the regular expression, returning the match or null.
+    public @Nullable MatchResult matchEntire(final @NotNull CharSequence input) {
+        if (literal != null) {
+            return StringUtils.contentEquals(input, literal) ? new RangeMatchResult(input, 0, input.length()) : null;
+        }
+        final Matcher matcher = nativePattern.matcher(input);
+        return matcher.matches() ? matcher.toMatchResult() : null;
+    }
+
+    // Replaces all occurrences of this regular expression in the input with the given replacement expression, which may refer to groups
+    // with $1 or ${name}.
+    public @NotNull String replace(final @NotNull CharSequence input, final @NotNull String replacement) {
+        if ((literal != null || prefix != null) && isLiteralReplacement(replacement)) {
+            return replace(input, match -> replacement);
+        }
+        return nativePattern.matcher(input).replaceAll(replacement);
+    }
+
+    // Replaces all occurrences of this regular expression in the input with the result of the given function applied to each match. The
+    // results are inserted literally.
+    public @NotNull String replace(final @NotNull CharSequence input, final @NotNull Function<? super MatchResult, ? extends CharSequence> transform) {
+        final Matcher matcher = newMatcher(input);
+        MatchResult match = search(matcher, input, 0);
+        if (match == null) {
+            return input.toString();
+        }
+        final int length = input.length();
+        final StringBuilder builder = new StringBuilder(length);
+        int lastEnd = 0;
+        do {
+            builder.append(input, lastEnd, match.start()).append(transform.apply(match));
+            lastEnd = match.end();
+            match = searchNext(matcher, input, match);
+        } while (match != null);
+        return builder.append(input, lastEnd, length).toString();
+    }
+
+    // Replaces the first occurrence of this regular expression in the input with the given replacement expression.
+    public @NotNull String replaceFirst(final @NotNull CharSequence input, final @NotNull String replacement) {
+        if ((literal != null || prefix != null) && isLiteralReplacement(replacement)) {
+            final MatchResult match = search(newMatcher(input), input, 0);
+            return match == null ? input.toString() :
+                new StringBuilder(input.length() - match.end() + match.start() + replacement.length())
+                    .append(input, 0, match.start()).append(replacement).append(input, match.end(), input.length()).toString();
+        }
+        return nativePattern.matcher(input).replaceFirst(replacement);
+    }
+
+    public @NotNull List<String> split(final @NotNull CharSequence input) {
+        return split(input, 0);
+    }
+
+    // Splits the input around matches of this regular expression. Unlike Pattern.split, trailing empty strings are kept.
+    // limit is the maximum number of strings to return, 0 meaning no limit.
+    public @NotNull List<String> split(final @NotNull CharSequence input, final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        checkLimit(limit);
+        final Matcher matcher = newMatcher(input);
+        MatchResult match = limit == 1 ? null : search(matcher, input, 0);
+        if (match == null) {
+            return optimizeReadOnlyList(singleton(input.toString()));
+        }
+        final List<String> result = new ArrayList<>(limit > 0 ? Math.min(limit, 10) : 10);
+        int lastEnd = 0;
+        do {
+            result.add(input.subSequence(lastEnd, match.start()).toString());
+            lastEnd = match.end();
+            if (limit > 0 && result.size() == limit - 1) {
+                break;
+            }
+            match = searchNext(matcher, input, match);
+        } while (match != null);
+        result.add(input.subSequence(lastEnd, input.length()).toString());
+        return optimizeReadOnlyList(result);
+    }
+
+    public @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence input) {
+        return splitToSequence(input, 0);
+    }
+
+    // Lazily splits the input around matches of this regular expression, with the same results as split.
+    public @NotNull Sequence<String> splitToSequence(final @NotNull CharSequence input, final @Range(from = 0, to = Integer.MAX_VALUE) int limit) {
+        checkLimit(limit);
+        return () -> new Iterator<String>() {
+            private final Matcher matcher = newMatcher(input);
+            // Start of the next string, -1 once the last one was returned
+            private int nextStart;
+            private int count;
+            private @Nullable MatchResult match;
+
+            @Override
+            public boolean hasNext() {
+                return nextStart >= 0;
+            }
+
+            @Override
+            public String next() {
+                if (nextStart < 0) {
+                    throw new NoSuchElementException();
+                }
+                final int start = nextStart;
+                count++;
+                if (limit == 0 || count < limit) {
+                    match = count == 1 ? search(matcher, input, 0) : searchNext(matcher, input, match);
+                    if (match != null) {
+                        nextStart = match.end();
+                        return input.subSequence(start, match.start()).toString();
+                    }
+                }
+                nextStart = -1;
+                return input.subSequence(start, input.length()).toString();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return nativePattern.toString();
+    }
+
+    // Returns a matcher for the given input, or null when the pattern is a literal and the regex engine is not needed.
+    private @Nullable Matcher newMatcher(final @NotNull CharSequence input) {
+        if (literal != null) {
+            return null;
+        }
+        final Matcher matcher = nativePattern.matcher(input);
+        // With a prefix, the matcher runs on regions starting at candidate positions, which must still see the whole input
+        return prefix != null ? matcher.useTransparentBounds(true).useAnchoringBounds(false) : matcher;
+    }
+
+    // Returns the first match at or after fromIndex, or null.
+    private @Nullable MatchResult search(final @Nullable Matcher matcher, final @NotNull CharSequence input, int fromIndex) {
+        if (literal != null) {
+            final int index = StringUtils.indexOf(input, literal, fromIndex);
+            return index < 0 ? null : new RangeMatchResult(input, index, index + literal.length());
+        }
+        assert matcher != null;
+        if (prefix == null) {
+            return matcher.find(fromIndex) ? matcher.toMatchResult() : null;
+        }
+        final int length = input.length();
+        while ((fromIndex = StringUtils.indexOf(input, prefix, fromIndex)) >= 0) {
+            if (matcher.region(fromIndex, length).lookingAt()) {
+                return matcher.toMatchResult();
+            }
+            fromIndex++;
+        }
+        return null;
+    }
+
+    // Returns the match following the given one, or null. As Matcher.find does, the search resumes after an empty match.
+    private @Nullable MatchResult searchNext(final @Nullable Matcher matcher, final @NotNull CharSequence input,
+                                             final @NotNull MatchResult previous) {
+        final int end = previous.end();
+        final int fromIndex = end == previous.start() ? end + 1 : end;
+        return fromIndex > input.length() ? null : search(matcher, input, fromIndex);
+    }
+
+    // Returns the longest literal prefix of the pattern, storing the index of the first pattern char not part of it in end[0]. A literal char
+    // followed by a quantifier is not part of the prefix, as it may not appear in a match.
+    private static @NotNull String literalPrefix(final @NotNull String pattern, final @NotNull int[] end) {
+        final int length = pattern.length();
+        final StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < length) {
+            final char ch = pattern.charAt(i);
+            final String chars;
+            final int next;
+            if (ch == '\\') {
+                if (i + 1 == length) {
+                    break;
+                }
+                final char escaped = pattern.charAt(i + 1);
+                if (escaped == 'Q') {
+                    final int quoteEnd = pattern.indexOf("\\E", i + 2);
+                    next = quoteEnd < 0 ? length : quoteEnd + 2;
+                    final String quoted = pattern.substring(i + 2, quoteEnd < 0 ? length : quoteEnd);
+                    if (isQuantifier(pattern, next) && !quoted.isEmpty()) {
+                        // Only the last quoted char is quantified
+                        result.append(quoted, 0, quoted.offsetByCodePoints(quoted.length(), -1));
+                        break;
+                    }
+                    result.append(quoted);
+                    i = next;
+                    continue;
+                }
+                // Escaped letters and digits are character classes, back references or control chars
+                if (escaped < 128 && Character.isLetterOrDigit(escaped) || Character.isHighSurrogate(escaped)) {
+                    break;
+                }
+                chars = String.valueOf(escaped);
+                next = i + 2;
+            } else if (METACHARS.indexOf(ch) >= 0) {
+                break;
+            } else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(pattern.charAt(i + 1))) {
+                chars = pattern.substring(i, i + 2);
+                next = i + 2;
+            } else {
+                chars = String.valueOf(ch);
+                next = i + 1;
+            }
+            if (isQuantifier(pattern, next)) {
+                break;
+            }
+            result.append(chars);
+            i = next;
+        }
+        end[0] = i;
+        return result.toString();
+    }
+
+    private static boolean isQuantifier(final @NotNull String pattern, final int index) {
+        if (index >= pattern.length()) {
+            return false;
+        }
+        final char ch = pattern.charAt(index);
+        return ch == '?' || ch == '*' || ch == '+' || ch == '{';
+    }
+
+    // Conservatively indicates whether the pattern has an alternation anywhere, which could make the literal prefix optional.
+    private static boolean hasAlternation(final @NotNull String pattern) {
+        final int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            final char ch = pattern.charAt(i);
+            if (ch == '|') {
+                return true;
+            }
+            if (ch == '\\' && i + 1 < length) {
+                if (pattern.charAt(i + 1) == 'Q') {
+                    final int quoteEnd = pattern.indexOf("\\E", i + 2);
+                    if (quoteEnd < 0) {
+                        return false;
+                    }
+                    i = quoteEnd;
+                }
+                i++;
+            }
+        }
+        return false;
+    }
+
+    // Indicates whether the replacement expression has no group reference nor escape, so that it can be inserted as is.
+    private static boolean isLiteralReplacement(final @NotNull String replacement) {
+        return replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
+    }
+
+    private static @NotNull List<String> singleton(final @NotNull String str) {
+        final List<String> result = new ArrayList<>(1);
+        result.add(str);
+        return result;
+    }
+
+    private static void checkStartIndex(final @NotNull CharSequence input, final int startIndex) {
+        if (startIndex < 0 || startIndex > input.length()) {
+            throw new IndexOutOfBoundsException("Start index out of bounds: " + startIndex + ", input length: " + input.length());
+        }
+    }
+
+    private static void checkLimit(final int limit) {
+        Preconditions.require(limit >= 0, () -> "Limit must be non-negative, but was " + limit);
+    }
+
+    private final class MatchIterator implements Iterator<MatchResult> {
+
+        private final CharSequence input;
+        private final @Nullable Matcher matcher;
+        private @Nullable MatchResult next;
+        private @Nullable MatchResult previous;
+        private final int startIndex;
+        private boolean done;
+
+        MatchIterator(final @NotNull CharSequence input, final int startIndex) {
+            this.input = input;
+            this.matcher = newMatcher(input);
+            this.startIndex = startIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                next = previous == null ? search(matcher, input, startIndex) : searchNext(matcher, input, previous);
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public MatchResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            previous = next;
+            next = null;
+            return previous;
+        }
     }
 }
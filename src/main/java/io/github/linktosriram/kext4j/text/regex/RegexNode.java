@@ -0,0 +1,65 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+// The syntax tree of a pattern accepted by LinearRegex.
+abstract class RegexNode {
+
+    // Matches one code point of the set.
+    static final class CharSet extends RegexNode {
+
+        final CodePointSet set;
+
+        CharSet(final @NotNull CodePointSet set) {
+            this.set = set;
+        }
+    }
+
+    // Matches its nodes one after the other. Without nodes, matches the empty string.
+    static final class Concatenation extends RegexNode {
+
+        final List<RegexNode> nodes;
+
+        Concatenation(final @NotNull List<RegexNode> nodes) {
+            this.nodes = nodes;
+        }
+    }
+
+    // Matches the first of its alternatives that leads to an overall match.
+    static final class Alternation extends RegexNode {
+
+        final List<RegexNode> alternatives;
+
+        Alternation(final @NotNull List<RegexNode> alternatives) {
+            this.alternatives = alternatives;
+        }
+    }
+
+    // Matches its node between min and max times, max being -1 when unbounded.
+    static final class Repetition extends RegexNode {
+
+        final RegexNode node;
+        final int min;
+        final int max;
+        final boolean greedy;
+
+        Repetition(final @NotNull RegexNode node, final int min, final int max, final boolean greedy) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+    }
+
+    // Matches the empty string at positions where the assertion holds, see Program for the kinds.
+    static final class Assertion extends RegexNode {
+
+        final int kind;
+
+        Assertion(final int kind) {
+            this.kind = kind;
+        }
+    }
+}
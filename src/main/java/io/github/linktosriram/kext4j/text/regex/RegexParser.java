@@ -0,0 +1,505 @@
+package io.github.linktosriram.kext4j.text.regex;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Parses the regular subset of the java.util.regex syntax accepted by LinearRegex, throwing PatternSyntaxException for anything else:
+// back references, lookaround, atomic groups, possessive quantifiers, inline flags, nested classes and class intersections.
+// Groups are parsed but do not capture.
+final class RegexParser {
+
+    static final int MAX_REPETITION = 1000;
+
+    private static final CodePointSet DIGIT = CodePointSet.range('0', '9');
+    private static final CodePointSet WORD = DIGIT.union(CodePointSet.range('a', 'z')).union(CodePointSet.range('A', 'Z')).union(CodePointSet.of('_'));
+    private static final CodePointSet SPACE = CodePointSet.of(" \t\n\u000B\f\r");
+    private static final CodePointSet LINE_TERMINATOR = CodePointSet.of("\n\r\u0085").union(CodePointSet.range(0x2028, 0x2029));
+
+    private final String pattern;
+    private final boolean caseInsensitive;
+    private final boolean multiline;
+    private final boolean dotAll;
+    private int index;
+
+    RegexParser(final @NotNull String pattern, final int flags) {
+        this.pattern = pattern;
+        this.caseInsensitive = (flags & Pattern.CASE_INSENSITIVE) != 0;
+        this.multiline = (flags & Pattern.MULTILINE) != 0;
+        this.dotAll = (flags & Pattern.DOTALL) != 0;
+    }
+
+    @NotNull RegexNode parse() {
+        final RegexNode node = parseAlternation();
+        if (index < pattern.length()) {
+            throw error("Unmatched closing ')'");
+        }
+        return node;
+    }
+
+    private @NotNull RegexNode parseAlternation() {
+        final List<RegexNode> alternatives = new ArrayList<>();
+        alternatives.add(parseConcatenation());
+        while (index < pattern.length() && pattern.charAt(index) == '|') {
+            index++;
+            alternatives.add(parseConcatenation());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new RegexNode.Alternation(alternatives);
+    }
+
+    private @NotNull RegexNode parseConcatenation() {
+        final List<RegexNode> nodes = new ArrayList<>();
+        while (index < pattern.length()) {
+            final char ch = pattern.charAt(index);
+            if (ch == '|' || ch == ')') {
+                break;
+            }
+            if (pattern.startsWith("\\Q", index)) {
+                // As with Pattern, a following quantifier only applies to the last quoted char, so the others are added as they are
+                final List<RegexNode> quoted = parseQuotation();
+                if (!quoted.isEmpty()) {
+                    nodes.addAll(quoted.subList(0, quoted.size() - 1));
+                    nodes.add(parseQuantifier(quoted.get(quoted.size() - 1)));
+                }
+                continue;
+            }
+            nodes.add(parseQuantifier(parseAtom()));
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new RegexNode.Concatenation(nodes);
+    }
+
+    private @NotNull RegexNode parseAtom() {
+        final char ch = pattern.charAt(index);
+        switch (ch) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return new RegexNode.CharSet(parseClass());
+            case '.':
+                index++;
+                return new RegexNode.CharSet(dotAll ? CodePointSet.ALL : LINE_TERMINATOR.complement());
+            case '^':
+                index++;
+                return new RegexNode.Assertion(multiline ? Program.BEGIN_LINE : Program.BEGIN_INPUT);
+            case '$':
+                index++;
+                return new RegexNode.Assertion(multiline ? Program.END_LINE : Program.END_INPUT_OR_FINAL_TERMINATOR);
+            case '\\':
+                return parseEscape();
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("Dangling meta character '" + ch + '\'');
+            default:
+                final int codePoint = pattern.codePointAt(index);
+                index += Character.charCount(codePoint);
+                return literal(codePoint);
+        }
+    }
+
+    private @NotNull RegexNode parseGroup() {
+        index++;
+        if (pattern.startsWith("?:", index)) {
+            index += 2;
+        } else if (pattern.startsWith("?<", index) && index + 2 < pattern.length() && isAsciiLetter(pattern.charAt(index + 2))) {
+            // Named groups are accepted, but do not capture as any other group
+            final int end = pattern.indexOf('>', index);
+            if (end < 0) {
+                throw error("Named capturing group is missing trailing '>'");
+            }
+            index = end + 1;
+        } else if (pattern.startsWith("?", index)) {
+            throw error("Lookaround, atomic groups and inline flags are not supported");
+        }
+        final RegexNode node = parseAlternation();
+        if (index >= pattern.length()) {
+            throw error("Unclosed group");
+        }
+        index++;
+        return node;
+    }
+
+    private @NotNull RegexNode parseQuantifier(final @NotNull RegexNode atom) {
+        if (index >= pattern.length()) {
+            return atom;
+        }
+        final int min;
+        final int max;
+        switch (pattern.charAt(index)) {
+            case '*':
+                min = 0;
+                max = -1;
+                index++;
+                break;
+            case '+':
+                min = 1;
+                max = -1;
+                index++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                index++;
+                break;
+            case '{':
+                index++;
+                min = parseCount();
+                if (index < pattern.length() && pattern.charAt(index) == ',') {
+                    index++;
+                    max = index < pattern.length() && pattern.charAt(index) == '}' ? -1 : parseCount();
+                } else {
+                    max = min;
+                }
+                if (index >= pattern.length() || pattern.charAt(index) != '}') {
+                    throw error("Unclosed counted closure");
+                }
+                index++;
+                if (max >= 0 && max < min) {
+                    throw error("Illegal repetition range");
+                }
+                break;
+            default:
+                return atom;
+        }
+        boolean greedy = true;
+        if (index < pattern.length()) {
+            if (pattern.charAt(index) == '?') {
+                greedy = false;
+                index++;
+            } else if (pattern.charAt(index) == '+') {
+                throw error("Possessive quantifiers are not supported");
+            }
+        }
+        return new RegexNode.Repetition(atom, min, max, greedy);
+    }
+
+    private int parseCount() {
+        final int start = index;
+        int count = 0;
+        while (index < pattern.length() && isAsciiDigit(pattern.charAt(index))) {
+            count = count * 10 + pattern.charAt(index) - '0';
+            if (count > MAX_REPETITION) {
+                throw error("Repetition count is greater than " + MAX_REPETITION);
+            }
+            index++;
+        }
+        if (index == start) {
+            throw error("Illegal repetition");
+        }
+        return count;
+    }
+
+    // Parses a bracketed character class, with ranges, escapes and predefined classes.
+    private @NotNull CodePointSet parseClass() {
+        final int start = index;
+        index++;
+        final boolean negated = index < pattern.length() && pattern.charAt(index) == '^';
+        if (negated) {
+            index++;
+        }
+        CodePointSet set = CodePointSet.EMPTY;
+        boolean first = true;
+        while (true) {
+            if (index >= pattern.length()) {
+                index = start;
+                throw error("Unclosed character class");
+            }
+            final char ch = pattern.charAt(index);
+            if (ch == ']' && !first) {
+                index++;
+                break;
+            }
+            if (ch == '[') {
+                throw error("Nested character classes are not supported");
+            }
+            if (ch == '&' && pattern.startsWith("&&", index)) {
+                throw error("Character class intersections are not supported");
+            }
+            first = false;
+            final CodePointSet predefined = ch == '\\' ? parsePredefinedClass() : null;
+            if (predefined != null) {
+                set = set.union(predefined);
+                continue;
+            }
+            final int lower = parseClassChar();
+            if (index + 1 < pattern.length() && pattern.charAt(index) == '-' && pattern.charAt(index + 1) != ']') {
+                index++;
+                if (pattern.charAt(index) == '[' || pattern.charAt(index) == '\\' && parsePredefinedClass() != null) {
+                    throw error("Illegal character range");
+                }
+                final int upper = parseClassChar();
+                if (upper < lower) {
+                    throw error("Illegal character range");
+                }
+                set = set.union(CodePointSet.range(lower, upper));
+            } else {
+                set = set.union(CodePointSet.of(lower));
+            }
+        }
+        if (caseInsensitive) {
+            set = set.withAsciiCaseVariants();
+        }
+        return negated ? set.complement() : set;
+    }
+
+    private int parseClassChar() {
+        if (pattern.charAt(index) == '\\') {
+            index++;
+            return parseCharEscape();
+        }
+        final int codePoint = pattern.codePointAt(index);
+        index += Character.charCount(codePoint);
+        return codePoint;
+    }
+
+    private @NotNull RegexNode parseEscape() {
+        final CodePointSet predefined = parsePredefinedClass();
+        if (predefined != null) {
+            return new RegexNode.CharSet(predefined);
+        }
+        index++;
+        if (index >= pattern.length()) {
+            throw error("Unexpected internal error");
+        }
+        final char ch = pattern.charAt(index);
+        switch (ch) {
+            case 'A':
+                index++;
+                return new RegexNode.Assertion(Program.BEGIN_INPUT);
+            case 'z':
+                index++;
+                return new RegexNode.Assertion(Program.END_INPUT);
+            case 'Z':
+                index++;
+                return new RegexNode.Assertion(Program.END_INPUT_OR_FINAL_TERMINATOR);
+            case 'b':
+                index++;
+                return new RegexNode.Assertion(Program.WORD_BOUNDARY);
+            case 'B':
+                index++;
+                return new RegexNode.Assertion(Program.NOT_WORD_BOUNDARY);
+            case 'k':
+                throw error("Back references are not supported");
+            default:
+                if (ch >= '1' && ch <= '9') {
+                    throw error("Back references are not supported");
+                }
+                return literal(parseCharEscape());
+        }
+    }
+
+    // Parses \Q...\E at index into one literal per quoted code point, none for an empty quotation.
+    private @NotNull List<RegexNode> parseQuotation() {
+        final int start = index + 2;
+        final int end = pattern.indexOf("\\E", start);
+        final String quoted = pattern.substring(start, end < 0 ? pattern.length() : end);
+        index = end < 0 ? pattern.length() : end + 2;
+        final List<RegexNode> nodes = new ArrayList<>();
+        quoted.codePoints().forEach(codePoint -> nodes.add(literal(codePoint)));
+        return nodes;
+    }
+
+    // Parses \d, \D, \w, \W, \s, \S, \p{...} and \P{...} at index, returning null and leaving index unchanged for any other escape.
+    private @Nullable CodePointSet parsePredefinedClass() {
+        if (index + 1 >= pattern.length()) {
+            return null;
+        }
+        final char ch = pattern.charAt(index + 1);
+        final CodePointSet set;
+        switch (ch) {
+            case 'd':
+            case 'D':
+                set = DIGIT;
+                break;
+            case 'w':
+            case 'W':
+                set = WORD;
+                break;
+            case 's':
+            case 'S':
+                set = SPACE;
+                break;
+            case 'p':
+            case 'P':
+                index += 2;
+                final String name;
+                if (index < pattern.length() && pattern.charAt(index) == '{') {
+                    final int end = pattern.indexOf('}', index);
+                    if (end < 0) {
+                        throw error("Unclosed character family");
+                    }
+                    name = pattern.substring(index + 1, end);
+                    index = end + 1;
+                } else if (index < pattern.length()) {
+                    name = pattern.substring(index, index + 1);
+                    index++;
+                } else {
+                    throw error("Illegal character family");
+                }
+                final CodePointSet property = posixClass(name);
+                return ch == 'P' ? property.complement() : property;
+            default:
+                return null;
+        }
+        index += 2;
+        return Character.isUpperCase(ch) ? set.complement() : set;
+    }
+
+    private @NotNull CodePointSet posixClass(final @NotNull String name) {
+        switch (name) {
+            case "Lower":
+                return CodePointSet.range('a', 'z');
+            case "Upper":
+                return CodePointSet.range('A', 'Z');
+            case "ASCII":
+                return CodePointSet.range(0, 0x7F);
+            case "Alpha":
+                return CodePointSet.range('a', 'z').union(CodePointSet.range('A', 'Z'));
+            case "Digit":
+                return DIGIT;
+            case "Alnum":
+                return DIGIT.union(CodePointSet.range('a', 'z')).union(CodePointSet.range('A', 'Z'));
+            case "Punct":
+                return CodePointSet.range(0x21, 0x2F).union(CodePointSet.range(0x3A, 0x40)).union(CodePointSet.range(0x5B, 0x60))
+                    .union(CodePointSet.range(0x7B, 0x7E));
+            case "Graph":
+                return CodePointSet.range(0x21, 0x7E);
+            case "Print":
+                return CodePointSet.range(0x20, 0x7E);
+            case "Blank":
+                return CodePointSet.of(" \t");
+            case "Cntrl":
+                return CodePointSet.range(0, 0x1F).union(CodePointSet.of(0x7F));
+            case "XDigit":
+                return DIGIT.union(CodePointSet.range('a', 'f')).union(CodePointSet.range('A', 'F'));
+            case "Space":
+                return SPACE;
+            default:
+                throw error("Unsupported character property {" + name + '}');
+        }
+    }
+
+    // Parses the escape whose char is at index, returning the code point it stands for.
+    private int parseCharEscape() {
+        if (index >= pattern.length()) {
+            throw error("Unexpected internal error");
+        }
+        final char ch = pattern.charAt(index++);
+        switch (ch) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+            case '0':
+                return parseOctal();
+            case 'x':
+                return parseHex();
+            case 'u':
+                return parseHexDigits(4, 4);
+            case 'c':
+                if (index >= pattern.length()) {
+                    throw error("Illegal control escape sequence");
+                }
+                return pattern.charAt(index++) ^ 64;
+            default:
+                if (ch < 128 && Character.isLetterOrDigit(ch)) {
+                    index--;
+                    throw error("Illegal or unsupported escape sequence");
+                }
+                if (Character.isHighSurrogate(ch) && index < pattern.length() && Character.isLowSurrogate(pattern.charAt(index))) {
+                    return Character.toCodePoint(ch, pattern.charAt(index++));
+                }
+                return ch;
+        }
+    }
+
+    private int parseOctal() {
+        int value = 0;
+        int digits = 0;
+        while (digits < 3 && index < pattern.length() && pattern.charAt(index) >= '0' && pattern.charAt(index) <= '7'
+            && value * 8 + pattern.charAt(index) - '0' <= 0377) {
+            value = value * 8 + pattern.charAt(index++) - '0';
+            digits++;
+        }
+        if (digits == 0) {
+            throw error("Illegal octal escape sequence");
+        }
+        return value;
+    }
+
+    private int parseHex() {
+        if (index < pattern.length() && pattern.charAt(index) == '{') {
+            index++;
+            if (hexDigit() < 0) {
+                throw error("Illegal hexadecimal escape sequence");
+            }
+            // Any number of digits, as long as the value stays a code point, which also keeps it from overflowing
+            int value = 0;
+            for (int digit = hexDigit(); digit >= 0; digit = hexDigit()) {
+                value = value * 16 + digit;
+                index++;
+                if (value > Character.MAX_CODE_POINT) {
+                    throw error("Hexadecimal codepoint is too big");
+                }
+            }
+            if (index >= pattern.length() || pattern.charAt(index) != '}') {
+                throw error("Unclosed hexadecimal escape sequence");
+            }
+            index++;
+            return value;
+        }
+        return parseHexDigits(2, 2);
+    }
+
+    // Returns the value of the ASCII hex digit at the current index, or -1.
+    private int hexDigit() {
+        if (index >= pattern.length() || pattern.charAt(index) >= 128) {
+            return -1;
+        }
+        return Character.digit(pattern.charAt(index), 16);
+    }
+
+    private int parseHexDigits(final int minDigits, final int maxDigits) {
+        int value = 0;
+        int digits = 0;
+        while (digits < maxDigits && hexDigit() >= 0) {
+            value = value * 16 + hexDigit();
+            index++;
+            digits++;
+        }
+        if (digits < minDigits) {
+            throw error("Illegal hexadecimal escape sequence");
+        }
+        return value;
+    }
+
+    private @NotNull RegexNode literal(final int codePoint) {
+        final CodePointSet set = CodePointSet.of(codePoint);
+        return new RegexNode.CharSet(caseInsensitive ? set.withAsciiCaseVariants() : set);
+    }
+
+    private @NotNull PatternSyntaxException error(final @NotNull String description) {
+        return new PatternSyntaxException(description, pattern, index);
+    }
+
+    private static boolean isAsciiDigit(final char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isAsciiLetter(final char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z';
+    }
+}
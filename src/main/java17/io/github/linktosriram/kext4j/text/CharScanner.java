@@ -0,0 +1,53 @@
+package io.github.linktosriram.kext4j.text;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+// Entry point for the bulk scanning loops used by StringUtils, JDK 17+ variant packaged under META-INF/versions/17.
+// Delegates to VectorCharScanner when jdk.incubator.vector is resolved (e.g. started with --add-modules jdk.incubator.vector) and the input is
+// long enough to amortize the chunk copy, and to the same scalar loops as the Java 8 baseline otherwise.
+final class CharScanner {
+
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && VectorCharScanner.isSupported();
+    private static final int VECTOR_THRESHOLD = 64;
+    private static final int MAX_VECTOR_CHARS = 8;
+
+    @Contract(value = " -> fail", pure = true)
+    private CharScanner() {
+        throw new AssertionError();
+    }
+
+    // Returns the index of the first char in [startIndex, endIndex) equal to any of the given chars, or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull CharSequence seq, final @NotNull char[] chars, final int startIndex,
+                                                                    final int endIndex, final boolean ignoreCase) {
+        if (VECTORIZED && !ignoreCase && chars.length > 0 && chars.length <= MAX_VECTOR_CHARS && endIndex - startIndex >= VECTOR_THRESHOLD) {
+            return VectorCharScanner.indexOfAny(seq, chars, startIndex, endIndex);
+        }
+        return ScalarCharScanner.indexOfAny(seq, chars, startIndex, endIndex, ignoreCase);
+    }
+
+    // Returns the index of the first '\n' or '\r' in [startIndex, endIndex), or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfLineSeparator(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        if (VECTORIZED && endIndex - startIndex >= VECTOR_THRESHOLD) {
+            return VectorCharScanner.indexOfLineSeparator(seq, startIndex, endIndex);
+        }
+        return ScalarCharScanner.indexOfLineSeparator(seq, startIndex, endIndex);
+    }
+
+    // Returns the index of the first char in [startIndex, endIndex) which is not whitespace according to Character.isWhitespace, or -1.
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfNonWhitespace(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        if (VECTORIZED && endIndex - startIndex >= VECTOR_THRESHOLD) {
+            return VectorCharScanner.indexOfNonWhitespace(seq, startIndex, endIndex);
+        }
+        return ScalarCharScanner.indexOfNonWhitespace(seq, startIndex, endIndex);
+    }
+
+    // Returns the number of occurrences of the given char in [startIndex, endIndex).
+    static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final char ch, final int startIndex, final int endIndex) {
+        if (VECTORIZED && endIndex - startIndex >= VECTOR_THRESHOLD) {
+            return VectorCharScanner.count(seq, ch, startIndex, endIndex);
+        }
+        return ScalarCharScanner.count(seq, ch, startIndex, endIndex);
+    }
+}
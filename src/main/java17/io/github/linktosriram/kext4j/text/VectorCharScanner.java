@@ -0,0 +1,159 @@
+package io.github.linktosriram.kext4j.text;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Range;
+
+import static jdk.incubator.vector.VectorOperators.UNSIGNED_LE;
+
+// Vector API implementations of the CharScanner operations, comparing a whole vector of chars (16 with AVX2, 32 with AVX-512, 8 with NEON) per
+// instruction. Chars are copied out of the CharSequence in chunks with CharChunks.getChars and scanned as a char[].
+// Searches often stop within a few chars, at the end of a short line or token, so the first chars are scanned in place by the scalar loops,
+// and the chunks copied after them start small and double up to CHUNK_SIZE. Chunks are copied into a buffer reused per thread.
+// Must only be touched once CharScanner has verified that jdk.incubator.vector is resolved, otherwise loading this class fails.
+final class VectorCharScanner {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int CHUNK_SIZE = 2048;
+    private static final int SCALAR_PREFIX = 64;
+    private static final ThreadLocal<char[]> CHUNK = ThreadLocal.withInitial(() -> new char[CHUNK_SIZE]);
+
+    @Contract(value = " -> fail", pure = true)
+    private VectorCharScanner() {
+        throw new AssertionError();
+    }
+
+    static boolean isSupported() {
+        return SPECIES.length() >= 8;
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfAny(final @NotNull CharSequence seq, final @NotNull char[] chars, final int startIndex,
+                                                                    final int endIndex) {
+        final int prefixEnd = Math.min(endIndex, startIndex + SCALAR_PREFIX);
+        final int index = ScalarCharScanner.indexOfAny(seq, chars, startIndex, prefixEnd, false);
+        if (index >= 0 || prefixEnd == endIndex) {
+            return index;
+        }
+        final int lanes = SPECIES.length();
+        final char[] chunk = CHUNK.get();
+        int chunkSize = 2 * SCALAR_PREFIX;
+        for (int base = prefixEnd; base < endIndex; base += chunkSize, chunkSize = Math.min(2 * chunkSize, CHUNK_SIZE)) {
+            final int length = Math.min(chunkSize, endIndex - base);
+            CharChunks.getChars(seq, base, base + length, chunk, 0);
+            final int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += lanes) {
+                final ShortVector vector = ShortVector.fromCharArray(SPECIES, chunk, i);
+                VectorMask<Short> mask = vector.eq((short) chars[0]);
+                for (int k = 1; k < chars.length; k++) {
+                    mask = mask.or(vector.eq((short) chars[k]));
+                }
+                if (mask.anyTrue()) {
+                    return base + i + mask.firstTrue();
+                }
+            }
+            for (; i < length; i++) {
+                final char ch = chunk[i];
+                for (final char element : chars) {
+                    if (element == ch) {
+                        return base + i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfLineSeparator(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final int prefixEnd = Math.min(endIndex, startIndex + SCALAR_PREFIX);
+        final int index = ScalarCharScanner.indexOfLineSeparator(seq, startIndex, prefixEnd);
+        if (index >= 0 || prefixEnd == endIndex) {
+            return index;
+        }
+        final int lanes = SPECIES.length();
+        final char[] chunk = CHUNK.get();
+        int chunkSize = 2 * SCALAR_PREFIX;
+        for (int base = prefixEnd; base < endIndex; base += chunkSize, chunkSize = Math.min(2 * chunkSize, CHUNK_SIZE)) {
+            final int length = Math.min(chunkSize, endIndex - base);
+            CharChunks.getChars(seq, base, base + length, chunk, 0);
+            final int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += lanes) {
+                final ShortVector vector = ShortVector.fromCharArray(SPECIES, chunk, i);
+                final VectorMask<Short> mask = vector.eq((short) '\n').or(vector.eq((short) '\r'));
+                if (mask.anyTrue()) {
+                    return base + i + mask.firstTrue();
+                }
+            }
+            for (; i < length; i++) {
+                final char ch = chunk[i];
+                if (ch == '\n' || ch == '\r') {
+                    return base + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static @Range(from = -1, to = Integer.MAX_VALUE) int indexOfNonWhitespace(final @NotNull CharSequence seq, final int startIndex, final int endIndex) {
+        final int prefixEnd = Math.min(endIndex, startIndex + SCALAR_PREFIX);
+        final int index = ScalarCharScanner.indexOfNonWhitespace(seq, startIndex, prefixEnd);
+        if (index >= 0 || prefixEnd == endIndex) {
+            return index;
+        }
+        final int lanes = SPECIES.length();
+        final char[] chunk = CHUNK.get();
+        int chunkSize = 2 * SCALAR_PREFIX;
+        for (int base = prefixEnd; base < endIndex; base += chunkSize, chunkSize = Math.min(2 * chunkSize, CHUNK_SIZE)) {
+            final int length = Math.min(chunkSize, endIndex - base);
+            CharChunks.getChars(seq, base, base + length, chunk, 0);
+            final int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += lanes) {
+                final ShortVector vector = ShortVector.fromCharArray(SPECIES, chunk, i);
+                // 0x09..0x0D and 0x1C..0x20 are the ASCII whitespace chars, tested as two unsigned range checks
+                final VectorMask<Short> whitespace = vector.sub((short) 0x09).compare(UNSIGNED_LE, (short) 4)
+                    .or(vector.sub((short) 0x1C).compare(UNSIGNED_LE, (short) 4));
+                if (!whitespace.allTrue()) {
+                    // Non-ASCII lanes may still be whitespace, let the scalar check decide for this vector
+                    for (int k = i + whitespace.not().firstTrue(); k < i + lanes; k++) {
+                        if (!ScalarCharScanner.isWhitespace(chunk[k])) {
+                            return base + k;
+                        }
+                    }
+                }
+            }
+            for (; i < length; i++) {
+                if (!ScalarCharScanner.isWhitespace(chunk[i])) {
+                    return base + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    static @Range(from = 0, to = Integer.MAX_VALUE) int count(final @NotNull CharSequence seq, final char ch, final int startIndex, final int endIndex) {
+        final int lanes = SPECIES.length();
+        // Counting reads every char, so full chunks are copied from the start
+        final char[] chunk = CHUNK.get();
+        int count = 0;
+        for (int base = startIndex; base < endIndex; base += chunk.length) {
+            final int length = Math.min(chunk.length, endIndex - base);
+            CharChunks.getChars(seq, base, base + length, chunk, 0);
+            final int bound = SPECIES.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += lanes) {
+                count += ShortVector.fromCharArray(SPECIES, chunk, i).eq((short) ch).trueCount();
+            }
+            for (; i < length; i++) {
+                if (chunk[i] == ch) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}